@@ -0,0 +1,238 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A sorted list of full tuples with the {@link AbbreviatedKey abbreviated key}
+ * of the leading field of each tuple kept beside it in an array of longs.
+ * <p>
+ * A search for a partial tuple abbreviates the leading field of the partial
+ * tuple once, then finds the tuples with an equal key using a binary search of
+ * the array of keys, which does not touch the tuples. Only the tuples within
+ * that run of equal keys are compared with the comparable created by the
+ * {@link Partial}. When the partial tuple has a single field whose key decides
+ * equality, such as an integer, the tuples are not compared at all.
+ * <p>
+ * The index is created from a list that is already sorted in the order of a
+ * {@link TupleComparator}, or by {@link #sort(Collection)}, which compares the
+ * keys before the tuples while sorting.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ */
+public class AbbreviatedIndex<FullTuple extends Tuple<?, ?>>
+{
+    /** The sorted tuples. */
+    private final List<FullTuple> sorted;
+
+    /** The abbreviated key of the leading field of each tuple. */
+    private final long[] keys;
+
+    /**
+     * Create an index of the given sorted tuples.
+     *
+     * @param sorted
+     *            The tuples sorted in the order of a {@link TupleComparator}.
+     */
+    public AbbreviatedIndex(List<FullTuple> sorted)
+    {
+        long[] keys = new long[sorted.size()];
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = AbbreviatedKey.of(Fields.extract(sorted.get(i), 1)[0]);
+        }
+        this.sorted = Collections.unmodifiableList(new ArrayList<FullTuple>(sorted));
+        this.keys = keys;
+    }
+
+    /**
+     * Create an index of the given tuples and keys.
+     *
+     * @param sorted
+     *            The sorted tuples.
+     * @param keys
+     *            The abbreviated key of the leading field of each tuple.
+     */
+    private AbbreviatedIndex(List<FullTuple> sorted, long[] keys)
+    {
+        this.sorted = sorted;
+        this.keys = keys;
+    }
+
+    /**
+     * Sort the given tuples into an index, comparing their abbreviated keys
+     * first and comparing the tuples only when their keys are equal.
+     *
+     * @param tuples
+     *            The tuples.
+     * @return An index of the sorted tuples.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static <FullTuple extends Tuple<?, ?>> AbbreviatedIndex<FullTuple> sort(Collection<FullTuple> tuples)
+    {
+        Keyed<FullTuple>[] keyed = new Keyed[tuples.size()];
+        int count = 0;
+        for (FullTuple tuple : tuples)
+        {
+            keyed[count++] = new Keyed<FullTuple>(AbbreviatedKey.of(Fields.extract(tuple, 1)[0]), tuple);
+        }
+        final TupleComparator<FullTuple> comparator = new TupleComparator<FullTuple>();
+        Arrays.sort(keyed, new Comparator<Keyed<FullTuple>>()
+        {
+            public int compare(Keyed<FullTuple> left, Keyed<FullTuple> right)
+            {
+                if (left.key != right.key)
+                {
+                    return left.key < right.key ? -1 : 1;
+                }
+                return comparator.compare(left.tuple, right.tuple);
+            }
+        });
+        List<FullTuple> sorted = new ArrayList<FullTuple>(keyed.length);
+        long[] keys = new long[keyed.length];
+        for (int i = 0; i < keyed.length; i++)
+        {
+            sorted.add(keyed[i].tuple);
+            keys[i] = keyed[i].key;
+        }
+        return new AbbreviatedIndex<FullTuple>(Collections.unmodifiableList(sorted), keys);
+    }
+
+    /**
+     * Get the number of tuples in the index.
+     *
+     * @return The number of tuples.
+     */
+    public int size()
+    {
+        return keys.length;
+    }
+
+    /**
+     * Get the sorted tuples as an unmodifiable list.
+     *
+     * @return The sorted tuples.
+     */
+    public List<FullTuple> getList()
+    {
+        return sorted;
+    }
+
+    /**
+     * Get the abbreviated key of the tuple at the given index.
+     *
+     * @param index
+     *            The index.
+     * @return The abbreviated key.
+     */
+    public long getKey(int index)
+    {
+        return keys[index];
+    }
+
+    /**
+     * Find the run of tuples that begin with the fields of the given partial
+     * tuple.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return The run of matching tuples.
+     */
+    public <PartialTuple extends Tuple<?, ?>> Run run(Partial<FullTuple, PartialTuple> partial, PartialTuple probe)
+    {
+        Object[] fields = Fields.extract(probe, partial.getSharedCount());
+        long key = AbbreviatedKey.of(fields[0]);
+        int low = 0;
+        int high = keys.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        int start = low;
+        high = keys.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        int end = low;
+        if (start == end || (fields.length == 1 && AbbreviatedKey.isExact(fields[0])))
+        {
+            return new Run(start, end);
+        }
+        Comparable<FullTuple> comparable = new FieldsComparable<FullTuple>(fields);
+        start = Search.bound(sorted, comparable, start, end, 1);
+        end = Search.bound(sorted, comparable, start, end, 0);
+        return new Run(start, end);
+    }
+
+    /**
+     * Get the tuples that begin with the fields of the given partial tuple.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return A view of the matching tuples.
+     */
+    public <PartialTuple extends Tuple<?, ?>> List<FullTuple> get(Partial<FullTuple, PartialTuple> partial, PartialTuple probe)
+    {
+        Run run = run(partial, probe);
+        return sorted.subList(run.getStart(), run.getEnd());
+    }
+
+    /**
+     * A tuple and its abbreviated key while sorting.
+     *
+     * @param <FullTuple>
+     *            The full tuple type.
+     */
+    private final static class Keyed<FullTuple>
+    {
+        /** The abbreviated key. */
+        public final long key;
+
+        /** The tuple. */
+        public final FullTuple tuple;
+
+        /**
+         * Create a tuple with its abbreviated key.
+         *
+         * @param key
+         *            The abbreviated key.
+         * @param tuple
+         *            The tuple.
+         */
+        public Keyed(long key, FullTuple tuple)
+        {
+            this.key = key;
+            this.tuple = tuple;
+        }
+    }
+}
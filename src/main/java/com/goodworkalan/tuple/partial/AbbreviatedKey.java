@@ -0,0 +1,93 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * Static methods that abbreviate a field value to a 64-bit key that preserves
+ * the field order. If one field is less than another, its key is less than or
+ * equal to the key of the other, so that two fields with different keys are
+ * ordered by their keys alone and only fields with equal keys need to be
+ * compared.
+ * <p>
+ * A null field has the least key, as it is the least field in the comparison
+ * used by {@link Shared}. Integral numbers and characters are their own keys.
+ * A double is abbreviated to its bit pattern with the sign flipped so that the
+ * keys order as <code>Double.compareTo</code>. A string is abbreviated to its
+ * first four characters. Fields of any other type all have the same key and are
+ * always compared.
+ *
+ * @author Alan Gutierrez
+ */
+public final class AbbreviatedKey
+{
+    /** The key of a null field. */
+    public final static long NULL = Long.MIN_VALUE;
+
+    /** Cannot be instantiated. */
+    private AbbreviatedKey()
+    {
+    }
+
+    /**
+     * Abbreviate the given field value to an order preserving key.
+     *
+     * @param field
+     *            The field value.
+     * @return The abbreviated key.
+     */
+    public static long of(Object field)
+    {
+        if (field == null)
+        {
+            return NULL;
+        }
+        if (field instanceof String)
+        {
+            String string = (String) field;
+            int length = Math.min(string.length(), 4);
+            long key = 0;
+            for (int i = 0; i < length; i++)
+            {
+                key |= (long) string.charAt(i) << (48 - i * 16);
+            }
+            return key ^ Long.MIN_VALUE;
+        }
+        if (field instanceof Long || field instanceof Integer || field instanceof Short || field instanceof Byte)
+        {
+            return ((Number) field).longValue();
+        }
+        if (field instanceof Character)
+        {
+            return (Character) field;
+        }
+        if (field instanceof Boolean)
+        {
+            return ((Boolean) field) ? 1 : 0;
+        }
+        if (field instanceof Double)
+        {
+            long bits = Double.doubleToLongBits((Double) field);
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+        return 0;
+    }
+
+    /**
+     * Return true if the key of the given field value is equal only to the
+     * keys of equal field values, so that fields with equal keys need not be
+     * compared. This is true of integral numbers other than the least long,
+     * whose key is the key of null, characters and booleans. It is not true
+     * of strings, whose keys are padded with zero characters.
+     *
+     * @param field
+     *            The field value.
+     * @return True if the key decides equality.
+     */
+    public static boolean isExact(Object field)
+    {
+        if (field instanceof Long)
+        {
+            return ((Long) field) != Long.MIN_VALUE;
+        }
+        return field instanceof Integer || field instanceof Short || field instanceof Byte
+            || field instanceof Character || field instanceof Boolean;
+    }
+}
@@ -10,15 +10,11 @@ implements ComparableServer<PartialRest, Struct>
         this.delegate = delegate;
     }
     
+    @SuppressWarnings("unchecked")
     public Comparable<Struct> comparable(PartialRest partial)
     {
-        final Comparable<Rest> comparable = delegate.comparable(partial);
-        return new Comparable<Struct>()
-        {
-            public int compareTo(Struct o)
-            {
-                return comparable.compareTo(o);
-            }
-        };
+        // A comparable of the rest type can compare any struct that extends
+        // it, so the comparable is cast instead of wrapped to save a call.
+        return (Comparable<Struct>) (Comparable<?>) delegate.comparable(partial);
     };
 }
@@ -0,0 +1,117 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A column of field values in a {@link ColumnBatch}, one value for each row
+ * of the batch.
+ * <p>
+ * A column filters a selection vector, an array of row indexes, keeping the
+ * rows whose value is equal to a given value using the same comparison as
+ * {@link Shared}. Columns of primitive values filter with a tight loop over a
+ * primitive array that does not branch on the comparison, so that the loop
+ * can be compiled to vector instructions. A value that is not of the class of
+ * the primitive values is matched row by row against the boxed values, as an
+ * {@link ObjectColumn} would match it, so that a column never matches a row
+ * that the comparables created by a {@link Partial} would not.
+ *
+ * @author Alan Gutierrez
+ */
+public abstract class Column
+{
+    /**
+     * Columns are defined in this package.
+     */
+    Column()
+    {
+    }
+
+    /**
+     * Get the number of rows in the column.
+     *
+     * @return The number of rows.
+     */
+    public abstract int size();
+
+    /**
+     * Get the value of the given row as an object.
+     *
+     * @param row
+     *            The row index.
+     * @return The value of the row.
+     */
+    public abstract Object get(int row);
+
+    /**
+     * Write the index of every row whose value is equal to the given value
+     * into the selection vector.
+     *
+     * @param value
+     *            The value to match.
+     * @param selection
+     *            The selection vector, at least as long as the column.
+     * @return The number of rows selected.
+     */
+    abstract int select(Object value, int[] selection);
+
+    /**
+     * Remove the rows whose value is not equal to the given value from the
+     * selection vector, keeping the order of the rows that remain.
+     *
+     * @param value
+     *            The value to match.
+     * @param selection
+     *            The selection vector.
+     * @param count
+     *            The number of rows in the selection vector.
+     * @return The number of rows that remain selected.
+     */
+    abstract int filter(Object value, int[] selection, int count);
+
+    /**
+     * Write the index of every row whose boxed value the given value compares
+     * as equal into the selection vector, as an {@link ObjectColumn} would.
+     *
+     * @param value
+     *            The value to match.
+     * @param selection
+     *            The selection vector, at least as long as the column.
+     * @return The number of rows selected.
+     */
+    final int selectObjects(Object value, int[] selection)
+    {
+        int count = 0;
+        for (int i = 0, stop = size(); i < stop; i++)
+        {
+            if (Fields.compare(value, get(i)) == 0)
+            {
+                selection[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove the rows whose boxed value the given value does not compare as
+     * equal from the selection vector, as an {@link ObjectColumn} would.
+     *
+     * @param value
+     *            The value to match.
+     * @param selection
+     *            The selection vector.
+     * @param count
+     *            The number of rows in the selection vector.
+     * @return The number of rows that remain selected.
+     */
+    final int filterObjects(Object value, int[] selection, int count)
+    {
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int row = selection[i];
+            if (Fields.compare(value, get(row)) == 0)
+            {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+}
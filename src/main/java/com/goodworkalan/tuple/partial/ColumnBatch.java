@@ -0,0 +1,224 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.List;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A batch of tuples stored as one {@link Column} for each field, filtered by
+ * partial tuple a column at a time.
+ * <p>
+ * A filter produces a selection vector, the indexes of the rows whose leading
+ * fields are equal to the fields of a partial tuple, the same rows for which
+ * the comparable created by {@link Partial#compare(Tuple) Partial.compare}
+ * would return zero. The first column selects the rows that match the first
+ * field and each following column removes rows from the selection, so each
+ * column is read in a single tight loop instead of comparing one row object
+ * at a time. The rows of the batch do not need to be sorted.
+ * <p>
+ * The selection vector is supplied by the caller so that it can be reused
+ * from one filter to the next.
+ *
+ * @author Alan Gutierrez
+ */
+public class ColumnBatch
+{
+    /** The columns. */
+    private final Column[] columns;
+
+    /** The number of rows. */
+    private final int size;
+
+    /**
+     * Create a batch from the given columns.
+     *
+     * @param columns
+     *            The columns, one for each field.
+     * @exception IllegalArgumentException
+     *                If the columns are not all the same size.
+     */
+    public ColumnBatch(Column... columns)
+    {
+        int size = columns.length == 0 ? 0 : columns[0].size();
+        for (Column column : columns)
+        {
+            if (column.size() != size)
+            {
+                throw new IllegalArgumentException();
+            }
+        }
+        this.columns = columns.clone();
+        this.size = size;
+    }
+
+    /**
+     * Create a batch from the fields of the given tuples. A field whose values
+     * are all non-null longs or integers is stored as a primitive column, a
+     * field whose values are all strings or null is stored as a dictionary
+     * encoded column, and any other field is stored as a column of objects.
+     *
+     * @param tuples
+     *            The tuples.
+     * @return A batch containing the fields of the tuples.
+     */
+    public static ColumnBatch from(List<? extends Tuple<?, ?>> tuples)
+    {
+        int size = tuples.size();
+        int arity = size == 0 ? 0 : Fields.arity(tuples.get(0));
+        Object[][] values = new Object[arity][size];
+        for (int i = 0; i < size; i++)
+        {
+            Object[] fields = Fields.extract(tuples.get(i), arity);
+            for (int j = 0; j < arity; j++)
+            {
+                values[j][i] = fields[j];
+            }
+        }
+        Column[] columns = new Column[arity];
+        for (int i = 0; i < arity; i++)
+        {
+            columns[i] = column(values[i]);
+        }
+        return new ColumnBatch(columns);
+    }
+
+    /**
+     * Create the most compact column for the given values.
+     *
+     * @param values
+     *            The values.
+     * @return A column containing the values.
+     */
+    private static Column column(Object[] values)
+    {
+        boolean longs = true;
+        boolean integers = true;
+        boolean strings = true;
+        for (Object value : values)
+        {
+            longs = longs && value instanceof Long;
+            integers = integers && value instanceof Integer;
+            strings = strings && (value == null || value instanceof String);
+        }
+        if (longs)
+        {
+            long[] column = new long[values.length];
+            for (int i = 0; i < values.length; i++)
+            {
+                column[i] = (Long) values[i];
+            }
+            return new LongColumn(column);
+        }
+        if (integers)
+        {
+            int[] column = new int[values.length];
+            for (int i = 0; i < values.length; i++)
+            {
+                column[i] = (Integer) values[i];
+            }
+            return new IntColumn(column);
+        }
+        if (strings)
+        {
+            String[] column = new String[values.length];
+            System.arraycopy(values, 0, column, 0, values.length);
+            return new StringColumn(column);
+        }
+        return new ObjectColumn(values);
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the number of columns.
+     *
+     * @return The number of columns.
+     */
+    public int getColumnCount()
+    {
+        return columns.length;
+    }
+
+    /**
+     * Get the column at the given index.
+     *
+     * @param index
+     *            The column index.
+     * @return The column.
+     */
+    public Column getColumn(int index)
+    {
+        return columns[index];
+    }
+
+    /**
+     * Get the fields of the given row as a flat tuple.
+     *
+     * @param row
+     *            The row index.
+     * @return The fields of the row.
+     */
+    public FlatTuple row(int row)
+    {
+        Object[] fields = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++)
+        {
+            fields[i] = columns[i].get(row);
+        }
+        return new FlatTuple(fields);
+    }
+
+    /**
+     * Write the indexes of the rows whose leading fields are equal to the
+     * given fields into the selection vector, in row order.
+     *
+     * @param prefix
+     *            The values of the leading fields to match.
+     * @param selection
+     *            The selection vector, at least as long as the batch.
+     * @return The number of rows selected.
+     */
+    public int filter(Object[] prefix, int[] selection)
+    {
+        if (prefix.length == 0)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                selection[i] = i;
+            }
+            return size;
+        }
+        int count = columns[0].select(prefix[0], selection);
+        for (int i = 1; count != 0 && i < prefix.length; i++)
+        {
+            count = columns[i].filter(prefix[i], selection, count);
+        }
+        return count;
+    }
+
+    /**
+     * Write the indexes of the rows whose leading fields are equal to the
+     * fields of the given partial tuple into the selection vector, in row
+     * order.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @param selection
+     *            The selection vector, at least as long as the batch.
+     * @return The number of rows selected.
+     */
+    public <PartialTuple extends Tuple<?, ?>> int filter(Partial<?, PartialTuple> partial, PartialTuple probe, int[] selection)
+    {
+        return filter(Fields.extract(probe, partial.getSharedCount()), selection);
+    }
+}
@@ -95,7 +95,7 @@ public class Compare
             new CastFullComparableServer<Tuple<A, End>, Tuple<A, Tuple<B, Rest>>, FullTuple>(
                 new Ignore<B, Rest>().<A>shared());
         ComparableServer<Single<A>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, End>, Single<A>, FullTuple>(full);
-        return new Partial<FullTuple, Single<A>>(partial);
+        return new Partial<FullTuple, Single<A>>(partial, 1);
     }
 
     /**
@@ -131,7 +131,7 @@ public class Compare
             new CastFullComparableServer<Tuple<A, Tuple<B, End>>, Tuple<A, Tuple<B, Tuple<C, Rest>>>, FullTuple>(
                 new Ignore<C, Rest>().<B>shared().<A>shared());
         ComparableServer<Pair<A, B>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, End>>, Pair<A, B>, FullTuple>(full);
-        return new Partial<FullTuple, Pair<A, B>>(partial);
+        return new Partial<FullTuple, Pair<A, B>>(partial, 2);
     }
     
     /**
@@ -173,7 +173,7 @@ public class Compare
                 Tuple<A, Tuple<B, Tuple<C, Tuple<D, Rest>>>>, FullTuple>(
                 new Ignore<D, Rest>().<C>shared().<B>shared().<A>shared());
         ComparableServer<Triple<A, B, C>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, Tuple<C, End>>>, Triple<A, B, C>, FullTuple>(full);
-        return new Partial<FullTuple, Triple<A, B, C>>(partial);
+        return new Partial<FullTuple, Triple<A, B, C>>(partial, 3);
     }
     
     /**
@@ -219,7 +219,7 @@ public class Compare
                 Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Rest>>>>>, FullTuple>(
                 new Ignore<E, Rest>().<D>shared().<C>shared().<B>shared().<A>shared());
         ComparableServer<Quadruple<A, B, C, D>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, Tuple<C, Tuple<D, End>>>>, Quadruple<A, B, C, D>, FullTuple>(full);
-        return new Partial<FullTuple, Quadruple<A, B, C, D>>(partial);
+        return new Partial<FullTuple, Quadruple<A, B, C, D>>(partial, 4);
     }
     
     /**
@@ -269,7 +269,7 @@ public class Compare
                 Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Rest>>>>>>, FullTuple>(
                 new Ignore<F, Rest>().<E>shared().<D>shared().<C>shared().<B>shared().<A>shared());
         ComparableServer<Quintuple<A, B, C, D, E>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, End>>>>>, Quintuple<A, B, C, D, E>, FullTuple>(full);
-        return new Partial<FullTuple, Quintuple<A, B, C, D, E>>(partial);
+        return new Partial<FullTuple, Quintuple<A, B, C, D, E>>(partial, 5);
     }
     
     /**
@@ -323,7 +323,7 @@ public class Compare
                 Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Tuple<G, Rest>>>>>>>, FullTuple>(
                 new Ignore<G, Rest>().<F>shared().<E>shared().<D>shared().<C>shared().<B>shared().<A>shared());
         ComparableServer<Sextuple<A, B, C, D, E, F>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, End>>>>>>, Sextuple<A, B, C, D, E, F>, FullTuple>(full);
-        return new Partial<FullTuple, Sextuple<A, B, C, D, E, F>>(partial);
+        return new Partial<FullTuple, Sextuple<A, B, C, D, E, F>>(partial, 6);
     }
     
     /**
@@ -381,7 +381,7 @@ public class Compare
                 Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Tuple<G, Tuple<H, Rest>>>>>>>>, FullTuple>(
                 new Ignore<H, Rest>().<G>shared().<F>shared().<E>shared().<D>shared().<C>shared().<B>shared().<A>shared());
         ComparableServer<Septuple<A, B, C, D, E, F, G>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Tuple<G, End>>>>>>>, Septuple<A, B, C, D, E, F, G>, FullTuple>(full);
-        return new Partial<FullTuple, Septuple<A, B, C, D, E, F, G>>(partial);
+        return new Partial<FullTuple, Septuple<A, B, C, D, E, F, G>>(partial, 7);
     }
     
     /**
@@ -443,7 +443,7 @@ public class Compare
                 Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Tuple<G, Tuple<H, Tuple<I, Rest>>>>>>>>>, FullTuple>(
                 new Ignore<I, Rest>().<H>shared().<G>shared().<F>shared().<E>shared().<D>shared().<C>shared().<B>shared().<A>shared());
         ComparableServer<Octuple<A, B, C, D, E, F, G, H>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Tuple<G, Tuple<H, End>>>>>>>>, Octuple<A, B, C, D, E, F, G, H>, FullTuple>(full);
-        return new Partial<FullTuple, Octuple<A, B, C, D, E, F, G, H>>(partial);
+        return new Partial<FullTuple, Octuple<A, B, C, D, E, F, G, H>>(partial, 8);
     }
 
     /**
@@ -509,7 +509,7 @@ public class Compare
                 Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Tuple<G, Tuple<H, Tuple<I, Tuple<J, Rest>>>>>>>>>>, FullTuple>(
                 new Ignore<J, Rest>().<I>shared().<H>shared().<G>shared().<F>shared().<E>shared().<D>shared().<C>shared().<B>shared().<A>shared());
         ComparableServer<Nonuple<A, B, C, D, E, F, G, H, I>, FullTuple> partial = new CastPartialComparableServer<Tuple<A, Tuple<B, Tuple<C, Tuple<D, Tuple<E, Tuple<F, Tuple<G, Tuple<H, Tuple<I, End>>>>>>>>>, Nonuple<A, B, C, D, E, F, G, H, I>, FullTuple>(full);
-        return new Partial<FullTuple, Nonuple<A, B, C, D, E, F, G, H, I>>(partial);
+        return new Partial<FullTuple, Nonuple<A, B, C, D, E, F, G, H, I>>(partial, 9);
     }
 
     /**
@@ -0,0 +1,107 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.List;
+
+/**
+ * A finger into a sorted list of full tuples that remembers the position of
+ * the last run found, so that searches for partial tuples in ascending order
+ * cost time logarithmic in the distance between successive runs instead of
+ * the length of the list.
+ * <p>
+ * Each call to {@link #seek(Comparable) seek} gallops forward from the start
+ * of the previous run. A search for a partial tuple that is less than the
+ * previous one falls back to a binary search of the list before the previous
+ * run. The cursor does not allocate memory when it seeks, the bounds of the
+ * run are read from the cursor itself.
+ * <p>
+ * A cursor is not safe for use by multiple threads.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class Cursor<T>
+{
+    /** The sorted list of full tuples. */
+    private final List<T> sorted;
+
+    /** The index of the first tuple in the current run. */
+    private int start;
+
+    /** The index one past the last tuple in the current run. */
+    private int end;
+
+    /**
+     * Create a cursor positioned at the start of the given sorted list.
+     *
+     * @param sorted
+     *            The sorted list of full tuples.
+     */
+    public Cursor(List<T> sorted)
+    {
+        this.sorted = sorted;
+    }
+
+    /**
+     * Find the run of full tuples that compare as equal to the given
+     * comparable and move the cursor to it.
+     *
+     * @param comparable
+     *            A comparable created by a partial comparator builder.
+     * @return True if at least one full tuple matches.
+     */
+    public boolean seek(Comparable<? super T> comparable)
+    {
+        int size = sorted.size();
+        if (start > 0 && comparable.compareTo(sorted.get(start - 1)) <= 0)
+        {
+            start = Search.bound(sorted, comparable, 0, start, 1);
+        }
+        else
+        {
+            start = Search.gallop(sorted, comparable, start, size, 1);
+        }
+        end = Search.gallop(sorted, comparable, start, size, 0);
+        return start != end;
+    }
+
+    /**
+     * Get the index of the first tuple in the current run, or the insertion
+     * point of the last partial tuple sought if no tuples matched.
+     *
+     * @return The start of the current run.
+     */
+    public int getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Get the index one past the last tuple in the current run.
+     *
+     * @return The end of the current run.
+     */
+    public int getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * Get the current run.
+     *
+     * @return The current run.
+     */
+    public Run getRun()
+    {
+        return new Run(start, end);
+    }
+
+    /**
+     * Move the cursor back to the start of the sorted list.
+     */
+    public void reset()
+    {
+        start = end = 0;
+    }
+}
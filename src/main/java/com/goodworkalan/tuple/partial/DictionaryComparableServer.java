@@ -0,0 +1,73 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A comparable server that translates the string fields of a partial tuple
+ * into the probe codes of a {@link StringDictionary}, once for each
+ * comparable, and compares the codes against the integer codes stored in
+ * place of the strings in the full tuples. The fields that are not translated
+ * are compared as they are, so the comparables are the same as those created
+ * by a chain of {@link Shared} nodes over the encoded partial tuple.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <PartialTuple>
+ *            The partial tuple type.
+ * @param <FullTuple>
+ *            The full tuple type.
+ */
+class DictionaryComparableServer<PartialTuple, FullTuple>
+implements ComparableServer<PartialTuple, FullTuple>
+{
+    /** The dictionary. */
+    private final StringDictionary dictionary;
+
+    /** The number of shared fields. */
+    private final int shared;
+
+    /** Whether each shared field is a string to translate. */
+    private final boolean[] encoded;
+
+    /**
+     * Create a comparable server that translates the given fields.
+     * 
+     * @param dictionary
+     *            The dictionary.
+     * @param shared
+     *            The number of shared fields.
+     * @param encoded
+     *            Whether each shared field is a string to translate.
+     */
+    public DictionaryComparableServer(StringDictionary dictionary, int shared, boolean[] encoded)
+    {
+        this.dictionary = dictionary;
+        this.shared = shared;
+        this.encoded = encoded;
+    }
+
+    /**
+     * Create a comparable that compares the translated fields of the given
+     * partial tuple against the leading fields of a full tuple.
+     * 
+     * @param partial
+     *            The partial tuple.
+     * @return A comparable that will compare against the full tuple.
+     * @exception IllegalArgumentException
+     *                If a field to translate is not a string.
+     */
+    public Comparable<FullTuple> comparable(PartialTuple partial)
+    {
+        Object[] fields = Fields.extract(partial, shared);
+        for (int i = 0; i < shared; i++)
+        {
+            if (encoded[i])
+            {
+                if (fields[i] != null && !(fields[i] instanceof String))
+                {
+                    throw new IllegalArgumentException();
+                }
+                fields[i] = dictionary.probe((String) fields[i]);
+            }
+        }
+        return new FieldsComparable<FullTuple>(fields);
+    }
+}
@@ -0,0 +1,259 @@
+package com.goodworkalan.tuple.partial;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The types of tuple fields that can be written by a {@link TupleCodec}, each
+ * with a stable code used in a {@link PartialDescriptor}.
+ *
+ * @author Alan Gutierrez
+ */
+public enum FieldType
+{
+    /** A <code>Boolean</code> written as a single byte. */
+    BOOLEAN(1)
+    {
+        @Override
+        void write(ByteBuffer buffer, Object value)
+        {
+            buffer.put((byte) (((Boolean) value) ? 1 : 0));
+        }
+
+        @Override
+        Object read(ByteBuffer buffer)
+        {
+            return buffer.get() != 0;
+        }
+    },
+
+    /** A <code>Character</code> written as a variable length integer. */
+    CHARACTER(2)
+    {
+        @Override
+        void write(ByteBuffer buffer, Object value)
+        {
+            Varint.writeUnsigned(buffer, (Character) value);
+        }
+
+        @Override
+        Object read(ByteBuffer buffer)
+        {
+            return (char) Varint.readUnsigned(buffer);
+        }
+    },
+
+    /** An <code>Integer</code> written as a zig-zag variable length integer. */
+    INTEGER(3)
+    {
+        @Override
+        void write(ByteBuffer buffer, Object value)
+        {
+            Varint.writeSigned(buffer, (Integer) value);
+        }
+
+        @Override
+        Object read(ByteBuffer buffer)
+        {
+            return (int) Varint.readSigned(buffer);
+        }
+    },
+
+    /** A <code>Long</code> written as a zig-zag variable length integer. */
+    LONG(4)
+    {
+        @Override
+        void write(ByteBuffer buffer, Object value)
+        {
+            Varint.writeSigned(buffer, (Long) value);
+        }
+
+        @Override
+        Object read(ByteBuffer buffer)
+        {
+            return Varint.readSigned(buffer);
+        }
+    },
+
+    /** A <code>Double</code> written as its eight byte bit pattern. */
+    DOUBLE(5)
+    {
+        @Override
+        void write(ByteBuffer buffer, Object value)
+        {
+            buffer.putLong(Double.doubleToLongBits((Double) value));
+        }
+
+        @Override
+        Object read(ByteBuffer buffer)
+        {
+            return Double.longBitsToDouble(buffer.getLong());
+        }
+    },
+
+    /**
+     * A <code>String</code> written as its UTF-8 length followed by its UTF-8
+     * bytes, encoded directly into the buffer. An unpaired surrogate is
+     * written as a question mark.
+     */
+    STRING(6)
+    {
+        @Override
+        void write(ByteBuffer buffer, Object value)
+        {
+            String string = (String) value;
+            int length = string.length();
+            long bytes = 0;
+            for (int i = 0; i < length; i++)
+            {
+                char ch = string.charAt(i);
+                if (ch < 0x80)
+                {
+                    bytes++;
+                }
+                else if (ch < 0x800)
+                {
+                    bytes += 2;
+                }
+                else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1)))
+                {
+                    bytes += 4;
+                    i++;
+                }
+                else if (Character.isHighSurrogate(ch) || Character.isLowSurrogate(ch))
+                {
+                    bytes++;
+                }
+                else
+                {
+                    bytes += 3;
+                }
+            }
+            Varint.writeUnsigned(buffer, bytes);
+            for (int i = 0; i < length; i++)
+            {
+                char ch = string.charAt(i);
+                if (ch < 0x80)
+                {
+                    buffer.put((byte) ch);
+                }
+                else if (ch < 0x800)
+                {
+                    buffer.put((byte) (0xC0 | (ch >> 6)));
+                    buffer.put((byte) (0x80 | (ch & 0x3F)));
+                }
+                else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1)))
+                {
+                    int codePoint = Character.toCodePoint(ch, string.charAt(++i));
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                }
+                else if (Character.isHighSurrogate(ch) || Character.isLowSurrogate(ch))
+                {
+                    buffer.put((byte) '?');
+                }
+                else
+                {
+                    buffer.put((byte) (0xE0 | (ch >> 12)));
+                    buffer.put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (ch & 0x3F)));
+                }
+            }
+        }
+
+        @Override
+        Object read(ByteBuffer buffer)
+        {
+            int length = (int) Varint.readUnsigned(buffer);
+            int end = buffer.position() + length;
+            StringBuilder string = new StringBuilder();
+            while (buffer.position() < end)
+            {
+                int b = buffer.get() & 0xFF;
+                if (b < 0x80)
+                {
+                    string.append((char) b);
+                }
+                else if (b < 0xE0)
+                {
+                    string.append((char) (((b & 0x1F) << 6) | (buffer.get() & 0x3F)));
+                }
+                else if (b < 0xF0)
+                {
+                    string.append((char) (((b & 0x0F) << 12) | ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F)));
+                }
+                else
+                {
+                    int codePoint = ((b & 0x07) << 18) | ((buffer.get() & 0x3F) << 12) | ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F);
+                    string.appendCodePoint(codePoint);
+                }
+            }
+            return string.toString();
+        }
+    };
+
+    /** The stable code of the field type. */
+    private final int code;
+
+    /**
+     * Create a field type with the given stable code.
+     *
+     * @param code
+     *            The stable code.
+     */
+    private FieldType(int code)
+    {
+        this.code = code;
+    }
+
+    /**
+     * Get the stable code of the field type.
+     *
+     * @return The stable code.
+     */
+    public int getCode()
+    {
+        return code;
+    }
+
+    /**
+     * Get the field type with the given stable code.
+     *
+     * @param code
+     *            The stable code.
+     * @return The field type.
+     * @exception IllegalArgumentException
+     *                If there is no field type with the code.
+     */
+    public static FieldType forCode(int code)
+    {
+        for (FieldType type : values())
+        {
+            if (type.code == code)
+            {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Write a non-null field value.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param value
+     *            The field value.
+     */
+    abstract void write(ByteBuffer buffer, Object value);
+
+    /**
+     * Read a non-null field value.
+     *
+     * @param buffer
+     *            The buffer.
+     * @return The field value.
+     */
+    abstract Object read(ByteBuffer buffer);
+}
@@ -0,0 +1,210 @@
+package com.goodworkalan.tuple.partial;
+
+import com.mallardsoft.tuple.End;
+import com.mallardsoft.tuple.Tuple;
+import com.mallardsoft.tuple.Variable;
+
+/**
+ * Static methods that operate on the fields of a tuple type tree as a flat
+ * sequence. The field comparison used here is the same comparison used by
+ * {@link Shared}, a null field is less than any non-null field and two null
+ * fields are equal, so that the results agree with the comparables created by
+ * a {@link Partial}.
+ *
+ * @author Alan Gutierrez
+ */
+final class Fields
+{
+    /** Cannot be instantiated. */
+    private Fields()
+    {
+    }
+
+    /**
+     * Extract the given number of leading fields of the given tuple into an
+     * array.
+     *
+     * @param tuple
+     *            The tuple.
+     * @param count
+     *            The number of leading fields to extract.
+     * @return An array containing the leading fields of the tuple.
+     */
+    @SuppressWarnings("unchecked")
+    public static Object[] extract(Object tuple, int count)
+    {
+        Object[] fields = new Object[count];
+        Variable<Object> variable = new Variable<Object>();
+        Object rest = tuple;
+        for (int i = 0; i < count; i++)
+        {
+            rest = ((Tuple) rest).extract(variable);
+            fields[i] = variable.get();
+        }
+        return fields;
+    }
+
+    /**
+     * Count the number of fields in the given tuple.
+     *
+     * @param tuple
+     *            The tuple.
+     * @return The number of fields in the tuple.
+     */
+    @SuppressWarnings("unchecked")
+    public static int arity(Object tuple)
+    {
+        Variable<Object> variable = new Variable<Object>();
+        int count = 0;
+        Object rest = tuple;
+        while (!(rest instanceof End))
+        {
+            rest = ((Tuple) rest).extract(variable);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Compare two field values.
+     *
+     * @param left
+     *            The left field value.
+     * @param right
+     *            The right field value.
+     * @return A negative integer, zero, or a positive integer as the left
+     *         field is less than, equal to, or greater than the right field.
+     */
+    @SuppressWarnings("unchecked")
+    public static int compare(Object left, Object right)
+    {
+        if (left == null)
+        {
+            return right == null ? 0 : -1;
+        }
+        else if (right == null)
+        {
+            return 1;
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    /**
+     * Compare the given number of leading fields of two field arrays.
+     *
+     * @param left
+     *            The left fields.
+     * @param right
+     *            The right fields.
+     * @param count
+     *            The number of leading fields to compare.
+     * @return A negative integer, zero, or a positive integer as the left
+     *         fields are less than, equal to, or greater than the right fields.
+     */
+    public static int compare(Object[] left, Object[] right, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            int compare = compare(left[i], right[i]);
+            if (compare != 0)
+            {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compare the partial fields against the leading fields of the given full
+     * tuple, walking the full tuple only as far as necessary to decide.
+     *
+     * @param partial
+     *            The partial fields.
+     * @param tuple
+     *            The full tuple.
+     * @return A negative integer, zero, or a positive integer as the partial
+     *         fields are less than, equal to, or greater than the leading
+     *         fields of the full tuple.
+     */
+    @SuppressWarnings("unchecked")
+    public static int compare(Object[] partial, Object tuple)
+    {
+        Variable<Object> variable = new Variable<Object>();
+        Object rest = tuple;
+        for (int i = 0; i < partial.length; i++)
+        {
+            rest = ((Tuple) rest).extract(variable);
+            int compare = compare(partial[i], variable.get());
+            if (compare != 0)
+            {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Generate a hash code for the given number of leading fields. Fields
+     * that compare as equal must have equal hash codes for the hash code of
+     * the fields to be consistent with the field comparison.
+     *
+     * @param fields
+     *            The fields.
+     * @param count
+     *            The number of leading fields to hash.
+     * @return A hash code for the leading fields.
+     */
+    public static int hash(Object[] fields, int count)
+    {
+        int hash = 1;
+        for (int i = 0; i < count; i++)
+        {
+            hash = 31 * hash + (fields[i] == null ? 0 : fields[i].hashCode());
+        }
+        return hash;
+    }
+
+    /**
+     * Create the named tuple with the given fields, from <code>Single</code>
+     * to <code>Decuple</code>. The fields are not type checked.
+     *
+     * @param fields
+     *            The fields.
+     * @return A named tuple with the given fields.
+     * @exception IllegalStateException
+     *                If there are no fields or more than ten fields.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Tuple<?, ?> tuple(Object[] fields)
+    {
+        Comparable[] f = new Comparable[fields.length];
+        for (int i = 0; i < f.length; i++)
+        {
+            f[i] = (Comparable) fields[i];
+        }
+        switch (f.length)
+        {
+        case 1:
+            return Tuple.from(f[0]);
+        case 2:
+            return Tuple.from(f[0], f[1]);
+        case 3:
+            return Tuple.from(f[0], f[1], f[2]);
+        case 4:
+            return Tuple.from(f[0], f[1], f[2], f[3]);
+        case 5:
+            return Tuple.from(f[0], f[1], f[2], f[3], f[4]);
+        case 6:
+            return Tuple.from(f[0], f[1], f[2], f[3], f[4], f[5]);
+        case 7:
+            return Tuple.from(f[0], f[1], f[2], f[3], f[4], f[5], f[6]);
+        case 8:
+            return Tuple.from(f[0], f[1], f[2], f[3], f[4], f[5], f[6], f[7]);
+        case 9:
+            return Tuple.from(f[0], f[1], f[2], f[3], f[4], f[5], f[6], f[7], f[8]);
+        case 10:
+            return Tuple.from(f[0], f[1], f[2], f[3], f[4], f[5], f[6], f[7], f[8], f[9]);
+        }
+        throw new IllegalStateException();
+    }
+}
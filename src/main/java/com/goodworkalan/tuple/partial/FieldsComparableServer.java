@@ -0,0 +1,46 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A comparable server that compares a given number of leading fields without
+ * a type structure, used to rebuild a partial comparator builder from a
+ * {@link PartialDescriptor}. The comparables it creates are the same as those
+ * created by a chain of {@link Shared} nodes of the same length.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <PartialTuple>
+ *            The partial tuple type.
+ * @param <FullTuple>
+ *            The full tuple type.
+ */
+class FieldsComparableServer<PartialTuple, FullTuple>
+implements ComparableServer<PartialTuple, FullTuple>
+{
+    /** The number of shared fields. */
+    private final int shared;
+
+    /**
+     * Create a comparable server that compares the given number of leading
+     * fields.
+     * 
+     * @param shared
+     *            The number of shared fields.
+     */
+    public FieldsComparableServer(int shared)
+    {
+        this.shared = shared;
+    }
+
+    /**
+     * Create a comparable that compares the fields of the given partial tuple
+     * against the leading fields of a full tuple.
+     * 
+     * @param partial
+     *            The partial tuple.
+     * @return A comparable that will compare against the full tuple.
+     */
+    public Comparable<FullTuple> comparable(PartialTuple partial)
+    {
+        return new FieldsComparable<FullTuple>(Fields.extract(partial, shared));
+    }
+}
@@ -0,0 +1,206 @@
+package com.goodworkalan.tuple.partial;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Stores the runs of a {@link SortedRunIndex} as files of tuples encoded with
+ * a {@link TupleCodec} in a local directory.
+ * <p>
+ * A run is written with a {@link TupleWriter} and then mapped into memory.
+ * Only the offset of each tuple is kept on the heap, a tuple is decoded from
+ * the mapped file each time it is read, so that a binary search of a run
+ * decodes only the tuples it compares. The file of a run is deleted when the
+ * run is released, a mapping obtained by a reader before the run was released
+ * remains readable until it is collected.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class FileRunStore<T extends Tuple<?, ?>> implements RunStore<T>
+{
+    /** The directory of the run files. */
+    private final File directory;
+
+    /** The codec of the tuples. */
+    private final TupleCodec codec;
+
+    /**
+     * Create a store of runs in the given directory.
+     *
+     * @param directory
+     *            The directory of the run files.
+     * @param codec
+     *            The codec of the tuples.
+     */
+    public FileRunStore(File directory, TupleCodec codec)
+    {
+        this.directory = directory;
+        this.codec = codec;
+    }
+
+    /**
+     * Write the given sorted tuples to a new file and map the file into
+     * memory. The file is deleted if the run cannot be created.
+     *
+     * @param sorted
+     *            The tuples in sorted order.
+     * @param size
+     *            The number of tuples.
+     * @return A random access list of the tuples in the file.
+     * @throws IOException
+     *             If an I/O error occurs.
+     * @exception IllegalStateException
+     *                If the number of tuples is not the given size.
+     */
+    public List<T> store(Iterator<T> sorted, int size) throws IOException
+    {
+        File file = File.createTempFile("run", ".tuples", directory);
+        boolean stored = false;
+        try
+        {
+            TupleWriter writer = new TupleWriter(codec, new FileOutputStream(file).getChannel(), 64 * 1024);
+            try
+            {
+                while (sorted.hasNext())
+                {
+                    writer.write(sorted.next());
+                }
+            }
+            finally
+            {
+                writer.close();
+            }
+            RandomAccessFile random = new RandomAccessFile(file, "r");
+            ByteBuffer buffer;
+            try
+            {
+                buffer = random.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, random.length());
+            }
+            finally
+            {
+                random.close();
+            }
+            int[] offsets = new int[size];
+            int count = 0;
+            while (buffer.hasRemaining())
+            {
+                if (count == size)
+                {
+                    throw new IllegalStateException();
+                }
+                int length = buffer.getInt();
+                offsets[count++] = buffer.position();
+                buffer.position(buffer.position() + length);
+            }
+            if (count != size)
+            {
+                throw new IllegalStateException();
+            }
+            List<T> run = new EncodedRun<T>(codec, file, buffer, offsets);
+            stored = true;
+            return run;
+        }
+        finally
+        {
+            if (!stored)
+            {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Delete the file of the given run if it was created by this store.
+     *
+     * @param run
+     *            The run.
+     */
+    public void release(List<T> run)
+    {
+        if (run instanceof EncodedRun)
+        {
+            ((EncodedRun<?>) run).file.delete();
+        }
+    }
+
+    /**
+     * A run of tuples decoded on demand from a mapped file.
+     *
+     * @param <T>
+     *            The full tuple type.
+     */
+    private final static class EncodedRun<T extends Tuple<?, ?>>
+    extends AbstractList<T> implements RandomAccess
+    {
+        /** The codec of the tuples. */
+        private final TupleCodec codec;
+
+        /** The file of the run. */
+        public final File file;
+
+        /** The mapped file. */
+        private final ByteBuffer buffer;
+
+        /** The offset of each tuple in the mapped file. */
+        private final int[] offsets;
+
+        /**
+         * Create a run of the tuples at the given offsets of a mapped file.
+         *
+         * @param codec
+         *            The codec of the tuples.
+         * @param file
+         *            The file of the run.
+         * @param buffer
+         *            The mapped file.
+         * @param offsets
+         *            The offset of each tuple in the mapped file.
+         */
+        public EncodedRun(TupleCodec codec, File file, ByteBuffer buffer, int[] offsets)
+        {
+            this.codec = codec;
+            this.file = file;
+            this.buffer = buffer;
+            this.offsets = offsets;
+        }
+
+        /**
+         * Decode the tuple at the given index.
+         *
+         * @param index
+         *            The index.
+         * @return The tuple.
+         */
+        @Override
+        public T get(int index)
+        {
+            ByteBuffer view = buffer.duplicate();
+            view.position(offsets[index]);
+            return codec.<T>read(view);
+        }
+
+        /**
+         * Get the number of tuples in the run.
+         *
+         * @return The number of tuples.
+         */
+        @Override
+        public int size()
+        {
+            return offsets.length;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Arrays;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A tuple that stores its fields in a single array, for large sorted indexes
+ * where the one object per field of the named tuples and the extraction of
+ * each field through a variable is too costly.
+ * <p>
+ * A flat tuple is ordered field by field using the same comparison as
+ * {@link Shared}, a null field is less than any non-null field, and a shorter
+ * tuple is less than a longer tuple that begins with the same fields. A list
+ * of flat tuples is searched with the comparables created by
+ * {@link Partial#compareFlat(Tuple) Partial.compareFlat}, which compare the
+ * fields of a partial tuple against the fields of the flat tuple by index.
+ * <p>
+ * The fields of a flat tuple are not type checked, every field must be null
+ * or implement <code>Comparable</code> for its own type. Flat tuples are
+ * created from named tuples with {@link #from(Tuple) from} and converted back
+ * with {@link #toTuple() toTuple}.
+ *
+ * @author Alan Gutierrez
+ */
+public final class FlatTuple implements Comparable<FlatTuple>
+{
+    /** The fields. */
+    private final Object[] fields;
+
+    /**
+     * Create a flat tuple with the given fields.
+     *
+     * @param fields
+     *            The fields.
+     */
+    public FlatTuple(Object... fields)
+    {
+        this.fields = fields.clone();
+    }
+
+    /**
+     * Create a flat tuple with the fields of the given tuple.
+     *
+     * @param tuple
+     *            The tuple.
+     * @return A flat tuple with the same fields.
+     */
+    public static FlatTuple from(Tuple<?, ?> tuple)
+    {
+        return new FlatTuple(Fields.extract(tuple, Fields.arity(tuple)));
+    }
+
+    /**
+     * Get the number of fields.
+     *
+     * @return The number of fields.
+     */
+    public int size()
+    {
+        return fields.length;
+    }
+
+    /**
+     * Get the field at the given index.
+     *
+     * @param index
+     *            The field index.
+     * @return The field value.
+     */
+    public Object get(int index)
+    {
+        return fields[index];
+    }
+
+    /**
+     * Get the field at the given index cast to the given type.
+     *
+     * @param index
+     *            The field index.
+     * @param type
+     *            The field type.
+     * @return The field value.
+     * @exception ClassCastException
+     *                If the field is not of the given type.
+     */
+    public <T> T get(int index, Class<T> type)
+    {
+        return type.cast(fields[index]);
+    }
+
+    /**
+     * Get the numeric field at the given index as an integer.
+     *
+     * @param index
+     *            The field index.
+     * @return The field value.
+     * @exception NullPointerException
+     *                If the field is null.
+     */
+    public int getInt(int index)
+    {
+        return ((Number) fields[index]).intValue();
+    }
+
+    /**
+     * Get the numeric field at the given index as a long.
+     *
+     * @param index
+     *            The field index.
+     * @return The field value.
+     * @exception NullPointerException
+     *                If the field is null.
+     */
+    public long getLong(int index)
+    {
+        return ((Number) fields[index]).longValue();
+    }
+
+    /**
+     * Get the string field at the given index.
+     *
+     * @param index
+     *            The field index.
+     * @return The field value.
+     */
+    public String getString(int index)
+    {
+        return (String) fields[index];
+    }
+
+    /**
+     * Convert this flat tuple into the named tuple with the same number of
+     * fields, from <code>Single</code> to <code>Decuple</code>. The named
+     * tuple type is inferred from the assignment and is not checked.
+     *
+     * @return A named tuple with the same fields.
+     * @exception IllegalStateException
+     *                If the flat tuple has no fields or more than ten fields.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Tuple<?, ?>> T toTuple()
+    {
+        return (T) Fields.tuple(fields);
+    }
+
+    /**
+     * Compare the given partial fields against the leading fields of this
+     * flat tuple.
+     *
+     * @param partial
+     *            The partial fields.
+     * @return A negative integer, zero, or a positive integer as the partial
+     *         fields are less than, equal to, or greater than the leading
+     *         fields of this flat tuple.
+     */
+    int comparePrefix(Object[] partial)
+    {
+        for (int i = 0; i < partial.length; i++)
+        {
+            int compare = Fields.compare(partial[i], fields[i]);
+            if (compare != 0)
+            {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compare this flat tuple to another field by field.
+     *
+     * @param other
+     *            The other flat tuple.
+     * @return A negative integer, zero, or a positive integer as this flat
+     *         tuple is less than, equal to, or greater than the other.
+     */
+    public int compareTo(FlatTuple other)
+    {
+        int count = Math.min(fields.length, other.fields.length);
+        int compare = Fields.compare(fields, other.fields, count);
+        if (compare == 0)
+        {
+            return fields.length - other.fields.length;
+        }
+        return compare;
+    }
+
+    /**
+     * A flat tuple is equal to another flat tuple with equal fields.
+     *
+     * @param object
+     *            The object to compare.
+     * @return True if the object is a flat tuple with equal fields.
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        return object instanceof FlatTuple && Arrays.equals(fields, ((FlatTuple) object).fields);
+    }
+
+    /**
+     * Generate a hash code from the fields.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(fields);
+    }
+
+    /**
+     * Return the fields as a string.
+     *
+     * @return A string representation of the fields.
+     */
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(fields);
+    }
+}
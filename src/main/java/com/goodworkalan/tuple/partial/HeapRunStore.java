@@ -0,0 +1,47 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stores the runs of a {@link SortedRunIndex} as unmodifiable array lists on
+ * the heap.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class HeapRunStore<T> implements RunStore<T>
+{
+    /**
+     * Copy the given sorted tuples into an unmodifiable array list.
+     *
+     * @param sorted
+     *            The tuples in sorted order.
+     * @param size
+     *            The number of tuples.
+     * @return An unmodifiable list of the tuples.
+     */
+    public List<T> store(Iterator<T> sorted, int size)
+    {
+        List<T> run = new ArrayList<T>(size);
+        while (sorted.hasNext())
+        {
+            run.add(sorted.next());
+        }
+        return Collections.unmodifiableList(run);
+    }
+
+    /**
+     * Does nothing, the run is collected when no reader refers to it.
+     *
+     * @param run
+     *            The run.
+     */
+    public void release(List<T> run)
+    {
+    }
+}
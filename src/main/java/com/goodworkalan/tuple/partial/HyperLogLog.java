@@ -0,0 +1,119 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A HyperLogLog sketch that estimates the number of distinct hash codes added
+ * to it in a fixed amount of memory.
+ * <p>
+ * The sketch uses 4096 one byte registers and has a standard error of about
+ * one and a half percent. Sketches of different sets can be merged to
+ * estimate the number of distinct values in their union, so that sketches
+ * built for separate shards can be combined.
+ *
+ * @author Alan Gutierrez
+ */
+public class HyperLogLog
+{
+    /** The number of bits of the hash used to select a register. */
+    private final static int BITS = 12;
+
+    /** The number of registers. */
+    private final static int REGISTERS = 1 << BITS;
+
+    /** The bias correction constant for the number of registers. */
+    private final static double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    /** The registers. */
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * Mix the bits of a hash code into a 64 bit hash so that every bit of the
+     * hash code influences every bit of the result. Used to mix the hash codes
+     * of fields before they are combined into a single 64 bit hash.
+     * 
+     * @param hash
+     *            The hash code.
+     * @return The mixed 64 bit hash.
+     */
+    static long mix(long hash)
+    {
+        long mixed = hash * 0x9E3779B97F4A7C15L;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xFF51AFD7ED558CCDL;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xC4CEB9FE1A85EC53L;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    /**
+     * Add a hash code to the sketch.
+     * 
+     * @param hash
+     *            The hash code of a value.
+     */
+    public void add(int hash)
+    {
+        add((long) hash);
+    }
+
+    /**
+     * Add a 64 bit hash to the sketch. A hash combined from the hash codes of
+     * several values should be added as a 64 bit hash, since distinct
+     * combinations of small hash codes often collide in 32 bits.
+     * 
+     * @param hash
+     *            The 64 bit hash of a value.
+     */
+    public void add(long hash)
+    {
+        long mixed = mix(hash);
+        int register = (int) (mixed >>> (64 - BITS));
+        int rank = Long.numberOfLeadingZeros((mixed << BITS) | (1L << (BITS - 1))) + 1;
+        if (registers[register] < rank)
+        {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merge the given sketch into this sketch, so that this sketch estimates
+     * the number of distinct values in the union of both sets.
+     * 
+     * @param other
+     *            The sketch to merge.
+     */
+    public void merge(HyperLogLog other)
+    {
+        for (int i = 0; i < REGISTERS; i++)
+        {
+            if (registers[i] < other.registers[i])
+            {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of distinct hash codes added to the sketch.
+     * 
+     * @return The estimated number of distinct values.
+     */
+    public long estimate()
+    {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTERS; i++)
+        {
+            sum += 1.0 / (1L << registers[i]);
+            if (registers[i] == 0)
+            {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros != 0)
+        {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
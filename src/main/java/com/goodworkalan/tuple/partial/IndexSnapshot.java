@@ -0,0 +1,270 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A stable view of a {@link VersionedIndex} at a single version. Lookups and
+ * scans of a snapshot see the tuples of its version regardless of the changes
+ * made to the index after the snapshot was opened, and do not block or wait
+ * for writers.
+ * <p>
+ * A snapshot keeps the removed tuples that it can see from being discarded
+ * and must be closed when it is no longer used. A snapshot is not safe for
+ * use by multiple threads, but any number of snapshots can be open at once.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class IndexSnapshot<T extends Tuple<?, ?>>
+{
+    /** The index. */
+    private final VersionedIndex<T> index;
+
+    /** The version of the snapshot. */
+    private final long version;
+
+    /** The runs of the index when the snapshot was opened. */
+    private final List<List<VersionedEntry<T>>> runs;
+
+    /** The entry order. */
+    private final Comparator<VersionedEntry<T>> comparator;
+
+    /** Whether the snapshot has been closed. */
+    private boolean closed;
+
+    /**
+     * Create a snapshot.
+     *
+     * @param index
+     *            The index.
+     * @param version
+     *            The version of the snapshot.
+     * @param runs
+     *            The runs of the index when the snapshot was opened.
+     * @param comparator
+     *            The entry order.
+     */
+    IndexSnapshot(VersionedIndex<T> index, long version, List<List<VersionedEntry<T>>> runs, Comparator<VersionedEntry<T>> comparator)
+    {
+        this.index = index;
+        this.version = version;
+        this.runs = runs;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Get the version of the snapshot.
+     *
+     * @return The version.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Raise an exception if the snapshot is closed.
+     *
+     * @exception IllegalStateException
+     *                If the snapshot is closed.
+     */
+    private void checkOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Count the tuples visible to the snapshot.
+     *
+     * @return The number of tuples.
+     */
+    public int size()
+    {
+        checkOpen();
+        int size = 0;
+        for (List<VersionedEntry<T>> run : runs)
+        {
+            for (VersionedEntry<T> entry : run)
+            {
+                size += entry.isVisible(version) ? 1 : 0;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Iterate over all of the tuples visible to the snapshot in order.
+     *
+     * @return An iterator over all of the tuples.
+     */
+    public Iterator<T> iterator()
+    {
+        return scan(TupleRange.<T>all());
+    }
+
+    /**
+     * Iterate in order over the visible tuples that the given comparable
+     * compares as equal.
+     *
+     * @param comparable
+     *            A comparable created by a {@link Partial}.
+     * @return An iterator over the matching tuples.
+     */
+    public Iterator<T> scan(Comparable<? super T> comparable)
+    {
+        checkOpen();
+        List<Iterator<VersionedEntry<T>>> iterators = new ArrayList<Iterator<VersionedEntry<T>>>(runs.size());
+        for (List<VersionedEntry<T>> run : runs)
+        {
+            Run found = Search.run(VersionedEntry.tuples(run), comparable);
+            iterators.add(run.subList(found.getStart(), found.getEnd()).iterator());
+        }
+        return new Visible<T>(new MergeIterator<VersionedEntry<T>>(iterators, comparator), version);
+    }
+
+    /**
+     * Iterate in order over the visible tuples that begin with the fields of
+     * the given partial tuple.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return An iterator over the matching tuples.
+     */
+    public <P extends Tuple<?, ?>> Iterator<T> scan(Partial<T, P> partial, P probe)
+    {
+        return scan(partial.compare(probe));
+    }
+
+    /**
+     * Iterate in order over the visible tuples in the given range.
+     *
+     * @param range
+     *            The range.
+     * @return An iterator over the tuples in the range.
+     */
+    public Iterator<T> scan(TupleRange<T> range)
+    {
+        checkOpen();
+        List<Iterator<VersionedEntry<T>>> iterators = new ArrayList<Iterator<VersionedEntry<T>>>(runs.size());
+        for (List<VersionedEntry<T>> run : runs)
+        {
+            Run found = range.resolve(VersionedEntry.tuples(run));
+            iterators.add(run.subList(found.getStart(), found.getEnd()).iterator());
+        }
+        return new Visible<T>(new MergeIterator<VersionedEntry<T>>(iterators, comparator), version);
+    }
+
+    /**
+     * Close the snapshot so that the removed tuples it can see can be
+     * discarded. Closing a closed snapshot has no effect.
+     */
+    public void close()
+    {
+        if (!closed)
+        {
+            closed = true;
+            index.release(version);
+        }
+    }
+
+    /**
+     * An iterator over the tuples of the entries visible to a version.
+     *
+     * @param <T>
+     *            The full tuple type.
+     */
+    private final static class Visible<T> implements Iterator<T>
+    {
+        /** The entries. */
+        private final Iterator<VersionedEntry<T>> entries;
+
+        /** The snapshot version. */
+        private final long version;
+
+        /** The next visible entry or null if there are no more. */
+        private VersionedEntry<T> next;
+
+        /**
+         * Create an iterator over the entries visible to the given version.
+         *
+         * @param entries
+         *            The entries.
+         * @param version
+         *            The snapshot version.
+         */
+        public Visible(Iterator<VersionedEntry<T>> entries, long version)
+        {
+            this.entries = entries;
+            this.version = version;
+            advance();
+        }
+
+        /**
+         * Find the next visible entry.
+         */
+        private void advance()
+        {
+            next = null;
+            while (next == null && entries.hasNext())
+            {
+                VersionedEntry<T> entry = entries.next();
+                if (entry.isVisible(version))
+                {
+                    next = entry;
+                }
+            }
+        }
+
+        /**
+         * Return true if there are more visible tuples.
+         *
+         * @return True if there are more tuples.
+         */
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        /**
+         * Return the next visible tuple.
+         *
+         * @return The next tuple.
+         * @exception NoSuchElementException
+         *                If there are no more tuples.
+         */
+        public T next()
+        {
+            if (next == null)
+            {
+                throw new NoSuchElementException();
+            }
+            T tuple = next.tuple;
+            advance();
+            return tuple;
+        }
+
+        /**
+         * Not supported.
+         *
+         * @exception UnsupportedOperationException
+         *                Always.
+         */
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.goodworkalan.tuple.partial;
+
+import com.mallardsoft.tuple.Tuple;
+import com.mallardsoft.tuple.Variable;
+
+/**
+ * A comparable server that decorates the comparable server of a
+ * {@link Partial}, so that the comparables it creates compare with the same
+ * chain of {@link Shared} and {@link Ignore} nodes, and reports the depth,
+ * null handling and duration of each comparison to a metrics sink.
+ * <p>
+ * The chain of shared nodes creates a {@link FieldsComparable}, which
+ * reports the depth and null handling from within its own comparison loop,
+ * so instrumentation adds only the clock reads and the call to the sink. Any
+ * other comparable does not report the depth at which a comparison was
+ * decided, so after the decorated comparison is timed the fields of the
+ * partial tuple are walked against the full tuple a second time to find the
+ * first field that differs. The walk is not included in the reported
+ * duration, but it roughly doubles the cost of each comparison.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ * @param <PartialTuple>
+ *            The partial tuple type.
+ */
+class InstrumentedComparableServer<FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+implements ComparableServer<PartialTuple, FullTuple>
+{
+    /** The decorated comparable server. */
+    private final ComparableServer<PartialTuple, FullTuple> delegate;
+
+    /** The number of shared fields. */
+    private final int shared;
+
+    /** The metrics sink. */
+    private final PartialMetrics metrics;
+
+    /**
+     * Create an instrumented comparable server.
+     * 
+     * @param delegate
+     *            The decorated comparable server.
+     * @param shared
+     *            The number of shared fields.
+     * @param metrics
+     *            The metrics sink.
+     */
+    public InstrumentedComparableServer(ComparableServer<PartialTuple, FullTuple> delegate, int shared, PartialMetrics metrics)
+    {
+        this.delegate = delegate;
+        this.shared = shared;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Create an instrumented comparable for the given partial tuple.
+     * 
+     * @param partial
+     *            The partial tuple.
+     * @return An instrumented comparable.
+     */
+    public Comparable<FullTuple> comparable(PartialTuple partial)
+    {
+        metrics.created();
+        final Comparable<FullTuple> comparable = delegate.comparable(partial);
+        if (comparable instanceof FieldsComparable)
+        {
+            final FieldsComparable<FullTuple> fields = (FieldsComparable<FullTuple>) comparable;
+            return new Comparable<FullTuple>()
+            {
+                public int compareTo(FullTuple tuple)
+                {
+                    return fields.compareTo(tuple, metrics);
+                }
+            };
+        }
+        final Object[] fields = Fields.extract(partial, shared);
+        return new Comparable<FullTuple>()
+        {
+            @SuppressWarnings("unchecked")
+            public int compareTo(FullTuple tuple)
+            {
+                long start = System.nanoTime();
+                int compare = comparable.compareTo(tuple);
+                long nanos = System.nanoTime() - start;
+                Variable<Object> variable = new Variable<Object>();
+                Object rest = tuple;
+                int depth = 0;
+                boolean nullDecided = false;
+                boolean decided = false;
+                while (!decided && depth < fields.length)
+                {
+                    rest = ((Tuple) rest).extract(variable);
+                    Object field = variable.get();
+                    decided = Fields.compare(fields[depth++], field) != 0;
+                    nullDecided = decided && (field == null || fields[depth - 1] == null);
+                }
+                metrics.compared(depth, nullDecided, nanos);
+                return compare;
+            }
+        };
+    }
+}
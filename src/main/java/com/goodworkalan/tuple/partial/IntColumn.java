@@ -0,0 +1,84 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A column of non-null int values.
+ *
+ * @author Alan Gutierrez
+ */
+public class IntColumn extends Column
+{
+    /** The values. */
+    private final int[] values;
+
+    /**
+     * Create a column of the given values. The array is not copied.
+     *
+     * @param values
+     *            The values.
+     */
+    public IntColumn(int[] values)
+    {
+        this.values = values;
+    }
+
+    @Override
+    public int size()
+    {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row)
+    {
+        return values[row];
+    }
+
+    /**
+     * Get the value of the given row.
+     *
+     * @param row
+     *            The row index.
+     * @return The value of the row.
+     */
+    public int getInt(int row)
+    {
+        return values[row];
+    }
+
+    @Override
+    int select(Object value, int[] selection)
+    {
+        if (!(value instanceof Integer))
+        {
+            return selectObjects(value, selection);
+        }
+        int match = (Integer) value;
+        int[] values = this.values;
+        int count = 0;
+        for (int i = 0; i < values.length; i++)
+        {
+            selection[count] = i;
+            count += values[i] == match ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Override
+    int filter(Object value, int[] selection, int count)
+    {
+        if (!(value instanceof Integer))
+        {
+            return filterObjects(value, selection, count);
+        }
+        int match = (Integer) value;
+        int[] values = this.values;
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int row = selection[i];
+            selection[kept] = row;
+            kept += values[row] == match ? 1 : 0;
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,340 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A sorted list of full tuples whose leading field is an integral number,
+ * searched by predicting the position of a value with a piecewise linear
+ * model instead of a binary search of the whole list.
+ * <p>
+ * The leading fields are copied into an array of longs that is cut into
+ * segments of equal length. The first value of each segment is kept in a small
+ * array that is searched to choose a segment, and the position of a value
+ * within the segment is interpolated between the first and last values of the
+ * segment. The greatest distance between the predicted and actual position of
+ * any value in the segment is measured when the index is created, so that only
+ * a window of that width around the prediction is searched. On uniformly
+ * distributed values, such as ids assigned in order, the window is a handful
+ * of elements. On skewed values the window grows toward the length of the
+ * segment and the search becomes a binary search of the segment. If the window
+ * does not contain the position, which can happen for values that are not in
+ * the index, the rest of the segment is searched with a binary search.
+ * <p>
+ * Null leading fields sort before all numbers, as in {@link Shared}. When the
+ * partial tuple has more than one field, the tuples with an equal leading
+ * field are searched with the comparable created by the {@link Partial}.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ */
+public class InterpolationIndex<FullTuple extends Tuple<?, ?>>
+{
+    /** The sorted tuples. */
+    private final List<FullTuple> sorted;
+
+    /** The number of tuples with a null leading field. */
+    private final int nulls;
+
+    /** The leading fields of the tuples after the null leading fields. */
+    private final long[] values;
+
+    /** The number of values in a segment. */
+    private final int segmentSize;
+
+    /** The first value of each segment. */
+    private final long[] firsts;
+
+    /** The greatest prediction error of each segment. */
+    private final int[] errors;
+
+    /**
+     * Create an index of the given sorted tuples with segments of 256 values.
+     *
+     * @param sorted
+     *            The tuples sorted in the order of a {@link TupleComparator}.
+     * @exception IllegalArgumentException
+     *                If a leading field is not a long, integer, short or byte.
+     */
+    public InterpolationIndex(List<FullTuple> sorted)
+    {
+        this(sorted, 256);
+    }
+
+    /**
+     * Create an index of the given sorted tuples.
+     *
+     * @param sorted
+     *            The tuples sorted in the order of a {@link TupleComparator}.
+     * @param segmentSize
+     *            The number of values in a segment.
+     * @exception IllegalArgumentException
+     *                If a leading field is not a long, integer, short or byte,
+     *                or if the segment size is less than two.
+     */
+    public InterpolationIndex(List<FullTuple> sorted, int segmentSize)
+    {
+        if (segmentSize < 2)
+        {
+            throw new IllegalArgumentException();
+        }
+        this.sorted = Collections.unmodifiableList(new ArrayList<FullTuple>(sorted));
+        int nulls = 0;
+        while (nulls < sorted.size() && Fields.extract(sorted.get(nulls), 1)[0] == null)
+        {
+            nulls++;
+        }
+        long[] values = new long[sorted.size() - nulls];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = value(Fields.extract(sorted.get(nulls + i), 1)[0]);
+        }
+        this.nulls = nulls;
+        this.values = values;
+        this.segmentSize = segmentSize;
+        this.firsts = new long[(values.length + segmentSize - 1) / segmentSize];
+        for (int i = 0; i < firsts.length; i++)
+        {
+            firsts[i] = values[i * segmentSize];
+        }
+        this.errors = new int[firsts.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            if (i == 0 || values[i - 1] < values[i])
+            {
+                int segment = segment(values[i]);
+                if (segment >= 0)
+                {
+                    int error = Math.abs(predict(segment, values[i]) - i);
+                    errors[segment] = Math.max(errors[segment], error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert an integral leading field to a long.
+     *
+     * @param field
+     *            The leading field.
+     * @return The value of the leading field.
+     * @exception IllegalArgumentException
+     *                If the field is not a long, integer, short or byte.
+     */
+    private static long value(Object field)
+    {
+        if (field instanceof Long || field instanceof Integer || field instanceof Short || field instanceof Byte)
+        {
+            return ((Number) field).longValue();
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Get the index of the last segment whose first value is less than the
+     * given value, or -1 if there is none.
+     *
+     * @param value
+     *            The value.
+     * @return The segment index or -1.
+     */
+    private int segment(long value)
+    {
+        int low = 0;
+        int high = firsts.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (firsts[middle] < value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Predict the position of the given value in the given segment by linear
+     * interpolation between the first and last values of the segment.
+     *
+     * @param segment
+     *            The segment index.
+     * @param value
+     *            The value.
+     * @return The predicted position, within or at the end of the segment.
+     */
+    private int predict(int segment, long value)
+    {
+        int start = segment * segmentSize;
+        int last = Math.min(start + segmentSize, values.length) - 1;
+        double low = values[start];
+        double high = values[last];
+        if (high == low)
+        {
+            return last + 1;
+        }
+        double position = start + ((double) value - low) / (high - low) * (last - start);
+        return (int) Math.max(start, Math.min(last + 1, Math.ceil(position)));
+    }
+
+    /**
+     * Find the first position in the given range of the values whose value is
+     * greater than or equal to the given value, with a binary search.
+     *
+     * @param value
+     *            The value.
+     * @param low
+     *            The start of the range, inclusive.
+     * @param high
+     *            The end of the range, exclusive.
+     * @return The position, or the end of the range if there is none.
+     */
+    private int bound(long value, int low, int high)
+    {
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the first position of the values whose value is greater than or
+     * equal to the given value, searching the window around the predicted
+     * position and the rest of the segment only if the window misses.
+     *
+     * @param value
+     *            The value.
+     * @return The position of the lower bound of the value.
+     */
+    private int lowerBound(long value)
+    {
+        int segment = segment(value);
+        if (segment < 0)
+        {
+            return 0;
+        }
+        int start = segment * segmentSize;
+        int end = Math.min(start + segmentSize, values.length);
+        int predicted = predict(segment, value);
+        int low = Math.max(start, predicted - errors[segment]);
+        int high = Math.min(end, predicted + errors[segment] + 1);
+        if (low > start && values[low - 1] >= value)
+        {
+            return bound(value, start, low - 1);
+        }
+        if (high < end && values[high] < value)
+        {
+            return bound(value, high + 1, end);
+        }
+        return bound(value, low, high);
+    }
+
+    /**
+     * Get the number of tuples in the index.
+     *
+     * @return The number of tuples.
+     */
+    public int size()
+    {
+        return sorted.size();
+    }
+
+    /**
+     * Get the sorted tuples as an unmodifiable list.
+     *
+     * @return The sorted tuples.
+     */
+    public List<FullTuple> getList()
+    {
+        return sorted;
+    }
+
+    /**
+     * Get the greatest distance between a predicted and actual position of
+     * any value in the index. A small error means that lookups search small
+     * windows, an error near the segment size means that the values are skewed
+     * and lookups are binary searches of segments.
+     *
+     * @return The greatest prediction error.
+     */
+    public int getMaximumError()
+    {
+        int maximum = 0;
+        for (int error : errors)
+        {
+            maximum = Math.max(maximum, error);
+        }
+        return maximum;
+    }
+
+    /**
+     * Find the run of tuples that begin with the fields of the given partial
+     * tuple.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return The run of matching tuples.
+     * @exception IllegalArgumentException
+     *                If the leading field of the partial tuple is not null,
+     *                long, integer, short or byte.
+     */
+    public <PartialTuple extends Tuple<?, ?>> Run run(Partial<FullTuple, PartialTuple> partial, PartialTuple probe)
+    {
+        Object[] fields = Fields.extract(probe, partial.getSharedCount());
+        int start;
+        int end;
+        if (fields[0] == null)
+        {
+            start = 0;
+            end = nulls;
+        }
+        else
+        {
+            long value = value(fields[0]);
+            start = nulls + lowerBound(value);
+            end = value == Long.MAX_VALUE ? sorted.size() : nulls + lowerBound(value + 1);
+        }
+        if (fields.length > 1 && start != end)
+        {
+            Comparable<FullTuple> comparable = new FieldsComparable<FullTuple>(fields);
+            start = Search.bound(sorted, comparable, start, end, 1);
+            end = Search.bound(sorted, comparable, start, end, 0);
+        }
+        return new Run(start, end);
+    }
+
+    /**
+     * Get the tuples that begin with the fields of the given partial tuple.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return A view of the matching tuples.
+     */
+    public <PartialTuple extends Tuple<?, ?>> List<FullTuple> get(Partial<FullTuple, PartialTuple> partial, PartialTuple probe)
+    {
+        Run run = run(partial, probe);
+        return sorted.subList(run.getStart(), run.getEnd());
+    }
+}
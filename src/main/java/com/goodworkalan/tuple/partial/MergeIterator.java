@@ -0,0 +1,126 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * An iterator that merges sorted iterators into a single sorted iteration
+ * using a priority queue of the head of each iterator. Each call to
+ * {@link #next()} costs a logarithm of the number of iterators.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The element type.
+ */
+final class MergeIterator<T> implements Iterator<T>
+{
+    /** The iterators that are not exhausted ordered by their head element. */
+    private final PriorityQueue<Head<T>> queue;
+
+    /**
+     * Create an iterator that merges the given sorted iterators.
+     *
+     * @param iterators
+     *            The sorted iterators.
+     * @param comparator
+     *            The comparator that orders the iterators.
+     */
+    public MergeIterator(List<Iterator<T>> iterators, final Comparator<? super T> comparator)
+    {
+        this.queue = new PriorityQueue<Head<T>>(Math.max(iterators.size(), 1), new Comparator<Head<T>>()
+        {
+            public int compare(Head<T> left, Head<T> right)
+            {
+                int compare = comparator.compare(left.element, right.element);
+                return compare == 0 ? left.order - right.order : compare;
+            }
+        });
+        int order = 0;
+        for (Iterator<T> iterator : iterators)
+        {
+            if (iterator.hasNext())
+            {
+                queue.add(new Head<T>(iterator, order++));
+            }
+        }
+    }
+
+    /**
+     * Return true if any iterator has more elements.
+     *
+     * @return True if there are more elements.
+     */
+    public boolean hasNext()
+    {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Return the least head element of the iterators.
+     *
+     * @return The next element.
+     * @exception NoSuchElementException
+     *                If there are no more elements.
+     */
+    public T next()
+    {
+        Head<T> head = queue.poll();
+        if (head == null)
+        {
+            throw new NoSuchElementException();
+        }
+        T element = head.element;
+        if (head.iterator.hasNext())
+        {
+            head.element = head.iterator.next();
+            queue.add(head);
+        }
+        return element;
+    }
+
+    /**
+     * Not supported.
+     *
+     * @exception UnsupportedOperationException
+     *                Always.
+     */
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * An iterator and its current element. Ties between equal elements are
+     * broken by the order of the iterators so that the merge is stable.
+     */
+    private final static class Head<T>
+    {
+        /** The iterator. */
+        public final Iterator<T> iterator;
+
+        /** The order of the iterator in the merge. */
+        public final int order;
+
+        /** The current element. */
+        public T element;
+
+        /**
+         * Create the head of the given iterator, taking its first element.
+         *
+         * @param iterator
+         *            The iterator.
+         * @param order
+         *            The order of the iterator in the merge.
+         */
+        public Head(Iterator<T> iterator, int order)
+        {
+            this.iterator = iterator;
+            this.order = order;
+            this.element = iterator.next();
+        }
+    }
+}
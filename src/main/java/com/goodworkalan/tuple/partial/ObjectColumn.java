@@ -0,0 +1,65 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A column of values of any comparable type, including null, for fields that
+ * cannot be stored as primitives or dictionary codes.
+ *
+ * @author Alan Gutierrez
+ */
+public class ObjectColumn extends Column
+{
+    /** The values. */
+    private final Object[] values;
+
+    /**
+     * Create a column of the given values. The array is not copied.
+     *
+     * @param values
+     *            The values.
+     */
+    public ObjectColumn(Object[] values)
+    {
+        this.values = values;
+    }
+
+    @Override
+    public int size()
+    {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row)
+    {
+        return values[row];
+    }
+
+    @Override
+    int select(Object value, int[] selection)
+    {
+        int count = 0;
+        for (int i = 0; i < values.length; i++)
+        {
+            if (Fields.compare(value, values[i]) == 0)
+            {
+                selection[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    int filter(Object value, int[] selection, int count)
+    {
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int row = selection[i];
+            if (Fields.compare(value, values[row]) == 0)
+            {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+}
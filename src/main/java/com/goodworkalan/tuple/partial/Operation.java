@@ -0,0 +1,18 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * The kinds of operations timed by an {@link OperationRecorder}.
+ *
+ * @author Alan Gutierrez
+ */
+public enum Operation
+{
+    /** A search for the run of full tuples matching a partial tuple. */
+    LOOKUP,
+
+    /** An iteration over the full tuples matching a partial tuple. */
+    SCAN,
+
+    /** A sort of a list of full tuples. */
+    SORT
+}
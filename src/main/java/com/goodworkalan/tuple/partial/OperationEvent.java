@@ -0,0 +1,128 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A record of a lookup, scan or sort of full tuples that took longer than the
+ * threshold of an {@link OperationRecorder}.
+ *
+ * @author Alan Gutierrez
+ */
+public final class OperationEvent
+{
+    /** The kind of operation. */
+    private final Operation operation;
+
+    /** The number of fields in the full tuple. */
+    private final int arity;
+
+    /** The number of fields shared by the partial tuple. */
+    private final int shared;
+
+    /** The number of comparisons. */
+    private final long compares;
+
+    /** The number of full tuples returned or sorted. */
+    private final long rows;
+
+    /** The duration of the operation in nanoseconds. */
+    private final long nanos;
+
+    /**
+     * Create an operation event.
+     * 
+     * @param operation
+     *            The kind of operation.
+     * @param arity
+     *            The number of fields in the full tuple, or zero if no full
+     *            tuples were examined.
+     * @param shared
+     *            The number of fields shared by the partial tuple.
+     * @param compares
+     *            The number of comparisons.
+     * @param rows
+     *            The number of full tuples returned or sorted.
+     * @param nanos
+     *            The duration of the operation in nanoseconds.
+     */
+    public OperationEvent(Operation operation, int arity, int shared, long compares, long rows, long nanos)
+    {
+        this.operation = operation;
+        this.arity = arity;
+        this.shared = shared;
+        this.compares = compares;
+        this.rows = rows;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Get the kind of operation.
+     * 
+     * @return The kind of operation.
+     */
+    public Operation getOperation()
+    {
+        return operation;
+    }
+
+    /**
+     * Get the number of fields in the full tuple, or zero if no full tuples
+     * were examined.
+     * 
+     * @return The number of fields in the full tuple.
+     */
+    public int getArity()
+    {
+        return arity;
+    }
+
+    /**
+     * Get the number of fields shared by the partial tuple. For a sort, this
+     * is the number of fields in the full tuple.
+     * 
+     * @return The number of shared fields.
+     */
+    public int getSharedCount()
+    {
+        return shared;
+    }
+
+    /**
+     * Get the number of comparisons.
+     * 
+     * @return The number of comparisons.
+     */
+    public long getCompareCount()
+    {
+        return compares;
+    }
+
+    /**
+     * Get the number of full tuples returned or sorted.
+     * 
+     * @return The number of rows.
+     */
+    public long getRowCount()
+    {
+        return rows;
+    }
+
+    /**
+     * Get the duration of the operation in nanoseconds.
+     * 
+     * @return The duration of the operation.
+     */
+    public long getNanos()
+    {
+        return nanos;
+    }
+
+    /**
+     * Return a description of the operation for logging.
+     * 
+     * @return A description of the operation.
+     */
+    @Override
+    public String toString()
+    {
+        return operation + " arity=" + arity + " shared=" + shared + " compares=" + compares + " rows=" + rows + " nanos=" + nanos;
+    }
+}
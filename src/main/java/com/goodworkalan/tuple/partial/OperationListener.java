@@ -0,0 +1,19 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * Receives the events of operations that took longer than the threshold of
+ * an {@link OperationRecorder}.
+ *
+ * @author Alan Gutierrez
+ */
+public interface OperationListener
+{
+    /**
+     * Called on the thread that performed a slow operation after the
+     * operation completed.
+     * 
+     * @param event
+     *            The slow operation.
+     */
+    public void slow(OperationEvent event);
+}
@@ -0,0 +1,216 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Times lookups, scans and sorts of full tuples and reports the ones that take
+ * longer than a threshold to an {@link OperationListener}.
+ * <p>
+ * The recorder counts comparisons with a wrapper that increments a counter
+ * and reads the clock once at the start and once at the end of an operation.
+ * An event is created only when an operation exceeds the threshold, so a
+ * recorder can be left in place in production to catch slow operations as
+ * they happen. The shape of the full tuple is determined from the tuples only
+ * when an event is reported.
+ * <p>
+ * The recorder has no state of its own beyond the listener and threshold and
+ * can be shared by multiple threads.
+ *
+ * @author Alan Gutierrez
+ */
+public class OperationRecorder
+{
+    /** The listener to notify of slow operations. */
+    private final OperationListener listener;
+
+    /** The threshold in nanoseconds. */
+    private final long threshold;
+
+    /**
+     * Create an operation recorder that reports operations that take longer
+     * than the given threshold to the given listener.
+     *
+     * @param listener
+     *            The listener to notify of slow operations.
+     * @param threshold
+     *            The threshold duration.
+     * @param unit
+     *            The unit of the threshold duration.
+     */
+    public OperationRecorder(OperationListener listener, long threshold, TimeUnit unit)
+    {
+        this.listener = listener;
+        this.threshold = unit.toNanos(threshold);
+    }
+
+    /**
+     * Report the operation if it took longer than the threshold.
+     *
+     * @param operation
+     *            The kind of operation.
+     * @param sample
+     *            A full tuple examined by the operation used to determine the
+     *            arity, or null if none were examined.
+     * @param shared
+     *            The number of shared fields.
+     * @param compares
+     *            The number of comparisons.
+     * @param rows
+     *            The number of full tuples returned or sorted.
+     * @param start
+     *            The start time of the operation.
+     */
+    private void record(Operation operation, Object sample, int shared, long compares, long rows, long start)
+    {
+        long nanos = System.nanoTime() - start;
+        if (nanos >= threshold)
+        {
+            int arity = sample == null ? 0 : Fields.arity(sample);
+            listener.slow(new OperationEvent(operation, arity, shared, compares, rows, nanos));
+        }
+    }
+
+    /**
+     * Find the run of full tuples in the sorted list that match the given
+     * partial tuple, reporting the lookup if it is slow.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param probe
+     *            The partial tuple.
+     * @return The run of matching tuples.
+     */
+    public <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+    Run run(Partial<FullTuple, PartialTuple> partial, List<FullTuple> sorted, PartialTuple probe)
+    {
+        long start = System.nanoTime();
+        Counting<FullTuple> counting = new Counting<FullTuple>(partial.compare(probe));
+        Run run = Search.run(sorted, counting);
+        record(Operation.LOOKUP, sorted.isEmpty() ? null : sorted.get(0), partial.getSharedCount(), counting.count, run.size(), start);
+        return run;
+    }
+
+    /**
+     * Create a lazy scan of the full tuples in the sorted list that match the
+     * given partial tuple. The duration of the scan is measured from the
+     * creation of the iterator to the end of the iteration and the scan is
+     * reported when the iteration ends, if it is slow. A scan that is
+     * abandoned before the end is not reported.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param probe
+     *            The partial tuple.
+     * @return An iterator over the matching full tuples.
+     */
+    public <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+    Iterator<FullTuple> scan(Partial<FullTuple, PartialTuple> partial, final List<FullTuple> sorted, PartialTuple probe)
+    {
+        final long start = System.nanoTime();
+        final int shared = partial.getSharedCount();
+        final Counting<FullTuple> counting = new Counting<FullTuple>(partial.compare(probe));
+        final Scan<FullTuple> scan = new Scan<FullTuple>(sorted, counting);
+        return new Iterator<FullTuple>()
+        {
+            private long rows;
+
+            private boolean recorded;
+
+            public boolean hasNext()
+            {
+                boolean hasNext = scan.hasNext();
+                if (!hasNext && !recorded)
+                {
+                    recorded = true;
+                    record(Operation.SCAN, sorted.isEmpty() ? null : sorted.get(0), shared, counting.count, rows, start);
+                }
+                return hasNext;
+            }
+
+            public FullTuple next()
+            {
+                FullTuple next = scan.next();
+                rows++;
+                return next;
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Sort the given list of full tuples using a {@link TupleComparator},
+     * reporting the sort if it is slow.
+     *
+     * @param list
+     *            The list of full tuples to sort.
+     */
+    public <T extends Tuple<?, ?>> void sort(List<T> list)
+    {
+        long start = System.nanoTime();
+        final TupleComparator<T> comparator = new TupleComparator<T>();
+        final long[] count = new long[1];
+        Collections.sort(list, new Comparator<T>()
+        {
+            public int compare(T left, T right)
+            {
+                count[0]++;
+                return comparator.compare(left, right);
+            }
+        });
+        Object sample = list.isEmpty() ? null : list.get(0);
+        record(Operation.SORT, sample, sample == null ? 0 : Fields.arity(sample), count[0], list.size(), start);
+    }
+
+    /**
+     * A comparable that counts the comparisons made by a delegate comparable.
+     *
+     * @param <T>
+     *            The full tuple type.
+     */
+    private final static class Counting<T> implements Comparable<T>
+    {
+        /** The delegate comparable. */
+        private final Comparable<T> comparable;
+
+        /** The number of comparisons. */
+        public long count;
+
+        /**
+         * Create a counting comparable.
+         *
+         * @param comparable
+         *            The delegate comparable.
+         */
+        public Counting(Comparable<T> comparable)
+        {
+            this.comparable = comparable;
+        }
+
+        /**
+         * Count the comparison and return the result of the delegate.
+         *
+         * @param tuple
+         *            The full tuple.
+         * @return The result of the delegate comparison.
+         */
+        public int compareTo(T tuple)
+        {
+            count++;
+            return comparable.compareTo(tuple);
+        }
+    }
+}
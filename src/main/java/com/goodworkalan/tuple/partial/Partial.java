@@ -43,9 +43,24 @@ public class Partial<FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?
 {
     private ComparableServer<PartialTuple, FullTuple> comparableServer;
     
-    Partial(ComparableServer<PartialTuple, FullTuple> comparableServer)
+    /** The number of leading fields shared by the full and partial tuples. */
+    private final int shared;
+    
+    Partial(ComparableServer<PartialTuple, FullTuple> comparableServer, int shared)
     {
         this.comparableServer = comparableServer;
+        this.shared = shared;
+    }
+
+    /**
+     * Get the number of leading fields shared by the full and partial tuples,
+     * which is the number of fields in the partial tuple.
+     * 
+     * @return The number of shared fields.
+     */
+    public int getSharedCount()
+    {
+        return shared;
     }
 
     /**
@@ -59,4 +74,43 @@ public class Partial<FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?
     {
         return comparableServer.comparable(partial);
     }
+
+    /**
+     * Creates a <code>Comparable</code> that will compare the fields of the
+     * partial tuple against the fields of a {@link FlatTuple} by index. The
+     * fields of the partial tuple are extracted once when the comparable is
+     * created.
+     * 
+     * @param partial
+     *            An instance of the partial tuple.
+     * @return A comparable that will compare against a flat tuple.
+     */
+    public Comparable<FlatTuple> compareFlat(PartialTuple partial)
+    {
+        final Object[] fields = Fields.extract(partial, shared);
+        return new Comparable<FlatTuple>()
+        {
+            public int compareTo(FlatTuple tuple)
+            {
+                return tuple.comparePrefix(fields);
+            }
+        };
+    }
+
+    /**
+     * Create a partial comparator builder that creates the same comparables
+     * as this one, but reports every comparable created and every comparison
+     * to the given metrics sink. The comparables of this builder are wrapped,
+     * so they compare by the same chain of shared and ignored fields. This
+     * partial comparator builder is not affected, so instrumentation costs
+     * nothing where it is not used.
+     * 
+     * @param metrics
+     *            The metrics sink.
+     * @return An instrumented partial comparator builder.
+     */
+    public Partial<FullTuple, PartialTuple> instrument(PartialMetrics metrics)
+    {
+        return new Partial<FullTuple, PartialTuple>(new InstrumentedComparableServer<FullTuple, PartialTuple>(comparableServer, shared, metrics), shared);
+    }
 }
@@ -0,0 +1,161 @@
+package com.goodworkalan.tuple.partial;
+
+import java.nio.ByteBuffer;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A serializable description of the shape of a partial comparison, the field
+ * types of the full tuple and the number of leading fields shared by the
+ * partial tuple, so that a remote process can rebuild the same
+ * {@link Partial} and the codecs to read the full and partial tuples.
+ * <p>
+ * The descriptor is written as a version byte, the number of fields and the
+ * number of shared fields as variable length integers, and the code of each
+ * field type as a variable length integer.
+ *
+ * @author Alan Gutierrez
+ */
+public final class PartialDescriptor
+{
+    /** The version of the descriptor format. */
+    private final static byte VERSION = 1;
+
+    /** The field types of the full tuple. */
+    private final FieldType[] types;
+
+    /** The number of leading fields shared by the partial tuple. */
+    private final int shared;
+
+    /**
+     * Create a descriptor of a partial comparison.
+     * 
+     * @param shared
+     *            The number of leading fields shared by the partial tuple.
+     * @param types
+     *            The field types of the full tuple.
+     * @exception IllegalArgumentException
+     *                If the number of shared fields is not between one and the
+     *                number of fields.
+     */
+    public PartialDescriptor(int shared, FieldType... types)
+    {
+        if (shared < 1 || shared > types.length)
+        {
+            throw new IllegalArgumentException();
+        }
+        this.types = types.clone();
+        this.shared = shared;
+    }
+
+    /**
+     * Create a descriptor with the shape of the given partial comparator
+     * builder.
+     * 
+     * @param partial
+     *            The partial comparator builder.
+     * @param types
+     *            The field types of the full tuple.
+     * @return A descriptor of the partial comparison.
+     */
+    public static PartialDescriptor describe(Partial<?, ?> partial, FieldType... types)
+    {
+        return new PartialDescriptor(partial.getSharedCount(), types);
+    }
+
+    /**
+     * Get the number of fields in the full tuple.
+     * 
+     * @return The number of fields.
+     */
+    public int getArity()
+    {
+        return types.length;
+    }
+
+    /**
+     * Get the number of leading fields shared by the partial tuple.
+     * 
+     * @return The number of shared fields.
+     */
+    public int getSharedCount()
+    {
+        return shared;
+    }
+
+    /**
+     * Create a partial comparator builder that compares partial tuples
+     * against full tuples as described. The tuple types are inferred from the
+     * assignment and are not checked.
+     * 
+     * @return A partial comparator builder.
+     */
+    public <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>> Partial<FullTuple, PartialTuple> partial()
+    {
+        return new Partial<FullTuple, PartialTuple>(new FieldsComparableServer<PartialTuple, FullTuple>(shared), shared);
+    }
+
+    /**
+     * Create a codec for the full tuple.
+     * 
+     * @return A codec for the full tuple.
+     */
+    public TupleCodec getFullCodec()
+    {
+        return new TupleCodec(types);
+    }
+
+    /**
+     * Create a codec for the partial tuple.
+     * 
+     * @return A codec for the partial tuple.
+     */
+    public TupleCodec getPartialCodec()
+    {
+        FieldType[] partial = new FieldType[shared];
+        System.arraycopy(types, 0, partial, 0, shared);
+        return new TupleCodec(partial);
+    }
+
+    /**
+     * Write the descriptor to the buffer.
+     * 
+     * @param buffer
+     *            The buffer.
+     */
+    public void write(ByteBuffer buffer)
+    {
+        buffer.put(VERSION);
+        Varint.writeUnsigned(buffer, types.length);
+        Varint.writeUnsigned(buffer, shared);
+        for (FieldType type : types)
+        {
+            Varint.writeUnsigned(buffer, type.getCode());
+        }
+    }
+
+    /**
+     * Read a descriptor from the buffer.
+     * 
+     * @param buffer
+     *            The buffer.
+     * @return The descriptor.
+     * @exception IllegalArgumentException
+     *                If the descriptor format version or a field type code is
+     *                not recognized.
+     */
+    public static PartialDescriptor read(ByteBuffer buffer)
+    {
+        if (buffer.get() != VERSION)
+        {
+            throw new IllegalArgumentException();
+        }
+        FieldType[] types = new FieldType[(int) Varint.readUnsigned(buffer)];
+        int shared = (int) Varint.readUnsigned(buffer);
+        for (int i = 0; i < types.length; i++)
+        {
+            types[i] = FieldType.forCode((int) Varint.readUnsigned(buffer));
+        }
+        return new PartialDescriptor(shared, types);
+    }
+}
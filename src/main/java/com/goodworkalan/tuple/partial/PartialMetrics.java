@@ -0,0 +1,36 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * Receives measurements from the comparables created by a {@link Partial}
+ * returned by {@link Partial#instrument(PartialMetrics)}.
+ * <p>
+ * A comparable is created for each partial tuple searched, so the number of
+ * comparables created is the number of lookups, and the number of comparisons
+ * divided by the number of lookups is the number of comparisons per lookup.
+ * Implementations are called from every thread that compares, and must be
+ * thread safe and fast.
+ *
+ * @author Alan Gutierrez
+ * @see PartialStatistics
+ */
+public interface PartialMetrics
+{
+    /**
+     * Called when a comparable is created for a partial tuple.
+     */
+    public void created();
+
+    /**
+     * Called after each comparison of the partial tuple against a full tuple.
+     * 
+     * @param depth
+     *            The number of shared fields compared before the result was
+     *            decided, from one to the number of shared fields.
+     * @param nullDecided
+     *            True if the result was decided by a null field in either the
+     *            partial or the full tuple.
+     * @param nanos
+     *            The nanoseconds spent in the comparison.
+     */
+    public void compared(int depth, boolean nullDecided, long nanos);
+}
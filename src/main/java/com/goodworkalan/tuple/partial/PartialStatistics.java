@@ -0,0 +1,151 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe implementation of {@link PartialMetrics} that accumulates
+ * counts that can be read directly or through JMX.
+ * <p>
+ * Register an instance with the platform MBean server to publish the
+ * statistics of an instrumented {@link Partial}.
+ * <code><pre>
+ * PartialStatistics statistics = new PartialStatistics();
+ * Partial&lt;Pair&lt;String, String&gt;, Single&lt;String&gt;&gt; byLastName =
+ *      Compare.oneOf(Compare.&lt;String, String&gt;pair()).instrument(statistics);
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(statistics,
+ *      new ObjectName("com.goodworkalan.tuple.partial:type=Partial,name=byLastName"));
+ * </pre></code>
+ *
+ * @author Alan Gutierrez
+ */
+public class PartialStatistics implements PartialMetrics, PartialStatisticsMBean
+{
+    /** The number of depth histogram buckets. */
+    private final static int DEPTHS = 16;
+
+    /** The number of comparables created. */
+    private final AtomicLong comparableCount = new AtomicLong();
+
+    /** The number of comparisons. */
+    private final AtomicLong compareCount = new AtomicLong();
+
+    /** The number of comparisons decided by a null field. */
+    private final AtomicLong nullDecidedCount = new AtomicLong();
+
+    /** The total nanoseconds spent comparing. */
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    /** The histogram of comparison depth. */
+    private final AtomicLongArray depths = new AtomicLongArray(DEPTHS);
+
+    /**
+     * Count a comparable created.
+     */
+    public void created()
+    {
+        comparableCount.incrementAndGet();
+    }
+
+    /**
+     * Count a comparison.
+     * 
+     * @param depth
+     *            The number of shared fields compared.
+     * @param nullDecided
+     *            True if the result was decided by a null field.
+     * @param nanos
+     *            The nanoseconds spent in the comparison.
+     */
+    public void compared(int depth, boolean nullDecided, long nanos)
+    {
+        compareCount.incrementAndGet();
+        if (nullDecided)
+        {
+            nullDecidedCount.incrementAndGet();
+        }
+        totalNanos.addAndGet(nanos);
+        depths.incrementAndGet(Math.min(Math.max(depth - 1, 0), DEPTHS - 1));
+    }
+
+    /**
+     * Get the number of comparables created.
+     * 
+     * @return The number of comparables created.
+     */
+    public long getComparableCount()
+    {
+        return comparableCount.get();
+    }
+
+    /**
+     * Get the number of comparisons.
+     * 
+     * @return The number of comparisons.
+     */
+    public long getCompareCount()
+    {
+        return compareCount.get();
+    }
+
+    /**
+     * Get the number of comparisons decided by a null field.
+     * 
+     * @return The number of comparisons decided by a null field.
+     */
+    public long getNullDecidedCount()
+    {
+        return nullDecidedCount.get();
+    }
+
+    /**
+     * Get the total nanoseconds spent comparing.
+     * 
+     * @return The total nanoseconds spent comparing.
+     */
+    public long getTotalNanos()
+    {
+        return totalNanos.get();
+    }
+
+    /**
+     * Get the number of comparisons per comparable created.
+     * 
+     * @return The number of comparisons per lookup.
+     */
+    public double getComparesPerLookup()
+    {
+        long comparables = comparableCount.get();
+        return comparables == 0 ? 0 : (double) compareCount.get() / comparables;
+    }
+
+    /**
+     * Get a copy of the histogram of comparison depth.
+     * 
+     * @return The histogram of comparison depth.
+     */
+    public long[] getDepthHistogram()
+    {
+        long[] histogram = new long[DEPTHS];
+        for (int i = 0; i < DEPTHS; i++)
+        {
+            histogram[i] = depths.get(i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Reset all the statistics to zero.
+     */
+    public void reset()
+    {
+        comparableCount.set(0);
+        compareCount.set(0);
+        nullDecidedCount.set(0);
+        totalNanos.set(0);
+        for (int i = 0; i < DEPTHS; i++)
+        {
+            depths.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * The management interface of {@link PartialStatistics}.
+ *
+ * @author Alan Gutierrez
+ */
+public interface PartialStatisticsMBean
+{
+    /**
+     * Get the number of comparables created, one for each lookup.
+     * 
+     * @return The number of comparables created.
+     */
+    public long getComparableCount();
+
+    /**
+     * Get the number of comparisons of a partial tuple against a full tuple.
+     * 
+     * @return The number of comparisons.
+     */
+    public long getCompareCount();
+
+    /**
+     * Get the number of comparisons decided by a null field.
+     * 
+     * @return The number of comparisons decided by a null field.
+     */
+    public long getNullDecidedCount();
+
+    /**
+     * Get the total nanoseconds spent comparing.
+     * 
+     * @return The total nanoseconds spent comparing.
+     */
+    public long getTotalNanos();
+
+    /**
+     * Get the number of comparisons per lookup.
+     * 
+     * @return The number of comparisons per lookup.
+     */
+    public double getComparesPerLookup();
+
+    /**
+     * Get the histogram of the number of shared fields compared before a
+     * comparison was decided. The element at an index is the number of
+     * comparisons that were decided at the field at that index, the last
+     * element also counts the comparisons decided at deeper fields.
+     * 
+     * @return The histogram of comparison depth.
+     */
+    public long[] getDepthHistogram();
+
+    /**
+     * Reset all the statistics to zero.
+     */
+    public void reset();
+}
@@ -0,0 +1,163 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A hash index over the leading fields of a sorted list of full tuples that
+ * finds the run of tuples matching a partial tuple in constant average time.
+ * <p>
+ * The number of leading fields in the key is the number of fields shared by
+ * the given {@link Partial}. The list of full tuples must be sorted so that
+ * tuples with equal leading fields are contiguous. Each distinct prefix maps
+ * to the run of the list that contains it. The runs are stored in an open
+ * addressing hash table of primitive integer arrays so that the index adds
+ * only a few integers per distinct prefix to the list.
+ * <p>
+ * Fields are matched using the same comparison as {@link Shared}, a null field
+ * matches only a null field, but they are located by their hash codes. Field
+ * types whose <code>compareTo</code> is not consistent with their
+ * <code>hashCode</code> will not be found.
+ * <p>
+ * The index is a snapshot of the list. If the list changes, the index must be
+ * rebuilt.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ * @param <PartialTuple>
+ *            The partial tuple type.
+ */
+public class PrefixHashIndex<FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+{
+    /** The sorted list of full tuples. */
+    private final List<FullTuple> sorted;
+
+    /** The number of leading fields in the prefix. */
+    private final int shared;
+
+    /** The hash of the prefix in each occupied slot. */
+    private final int[] hashes;
+
+    /** The start of the run plus one in each slot, or zero if empty. */
+    private final int[] starts;
+
+    /** The end of the run in each slot. */
+    private final int[] ends;
+
+    /** The hash table size minus one. */
+    private final int mask;
+
+    /**
+     * Create a hash index of the prefixes of the given sorted list of full
+     * tuples, where the prefix length is the number of fields shared by the
+     * given partial comparator builder.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param sorted
+     *            A list of full tuples sorted by their leading fields.
+     */
+    public PrefixHashIndex(Partial<FullTuple, PartialTuple> partial, List<FullTuple> sorted)
+    {
+        int size = sorted.size();
+        int shared = partial.getSharedCount();
+        int[] runs = new int[size + 1];
+        int count = 0;
+        Object[] previous = null;
+        for (int i = 0; i < size; i++)
+        {
+            Object[] fields = Fields.extract(sorted.get(i), shared);
+            if (previous == null || Fields.compare(previous, fields, shared) != 0)
+            {
+                runs[count++] = i;
+            }
+            previous = fields;
+        }
+        runs[count] = size;
+
+        int capacity = 2;
+        while (capacity < count * 2)
+        {
+            capacity <<= 1;
+        }
+        this.sorted = sorted;
+        this.shared = shared;
+        this.hashes = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < count; i++)
+        {
+            int hash = Fields.hash(Fields.extract(sorted.get(runs[i]), shared), shared);
+            int slot = spread(hash) & mask;
+            while (starts[slot] != 0)
+            {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = hash;
+            starts[slot] = runs[i] + 1;
+            ends[slot] = runs[i + 1];
+        }
+    }
+
+    /**
+     * Scramble the bits of a hash code so that hash codes that differ only in
+     * their high bits land in different slots.
+     *
+     * @param hash
+     *            The hash code.
+     * @return The scrambled hash code.
+     */
+    private static int spread(int hash)
+    {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+
+    /**
+     * Find the run of full tuples whose leading fields match the given partial
+     * tuple.
+     *
+     * @param partial
+     *            The partial tuple.
+     * @return The run of matching full tuples or null if no full tuples match.
+     */
+    public Run run(PartialTuple partial)
+    {
+        Object[] fields = Fields.extract(partial, shared);
+        int hash = Fields.hash(fields, shared);
+        int slot = spread(hash) & mask;
+        while (starts[slot] != 0)
+        {
+            if (hashes[slot] == hash && Fields.compare(fields, sorted.get(starts[slot] - 1)) == 0)
+            {
+                return new Run(starts[slot] - 1, ends[slot]);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Get the full tuples whose leading fields match the given partial tuple.
+     *
+     * @param partial
+     *            The partial tuple.
+     * @return A view of the matching full tuples in the sorted list, empty if
+     *         no full tuples match.
+     */
+    public List<FullTuple> get(PartialTuple partial)
+    {
+        Run run = run(partial);
+        if (run == null)
+        {
+            return Collections.emptyList();
+        }
+        return sorted.subList(run.getStart(), run.getEnd());
+    }
+}
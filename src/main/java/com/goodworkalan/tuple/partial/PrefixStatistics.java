@@ -0,0 +1,193 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.List;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Statistics of a sorted list of full tuples that estimate the number of full
+ * tuples that match a partial tuple without searching the list.
+ * <p>
+ * The statistics are gathered in a single pass over the sorted list. An
+ * equi-depth histogram records the fields of the full tuple at every
+ * <i>n</i>th position, so that each bucket of the histogram holds the same
+ * number of full tuples. A {@link HyperLogLog} sketch for each prefix length
+ * estimates the number of distinct prefixes of that length. The hash of a
+ * prefix is a 64 bit hash that mixes the hash code of each field before it is
+ * combined with the hash of the fields before it, so that prefixes of small
+ * integers do not collide.
+ * <p>
+ * A partial tuple that equals the prefix of one or more bucket boundaries
+ * spans about that many buckets. A partial tuple that falls between two
+ * boundaries is estimated to match the average number of full tuples per
+ * distinct prefix, but no more than a bucket. A partial tuple outside the
+ * range of the list matches nothing. An estimate costs a binary search of the
+ * bucket boundaries.
+ * <p>
+ * The statistics are a snapshot of the list. If the list changes
+ * significantly, the statistics should be gathered again.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ */
+public class PrefixStatistics<FullTuple extends Tuple<?, ?>>
+{
+    /** The number of full tuples. */
+    private final int size;
+
+    /** The number of fields in the full tuple. */
+    private final int arity;
+
+    /** The number of full tuples in each bucket. */
+    private final double depth;
+
+    /** The fields of the full tuple at each bucket boundary. */
+    private final Object[][] boundaries;
+
+    /** The fields of the last full tuple. */
+    private final Object[] last;
+
+    /** The estimated number of distinct prefixes indexed by length less one. */
+    private final long[] distinct;
+
+    /**
+     * Gather the statistics of the given sorted list of full tuples.
+     * 
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param buckets
+     *            The number of histogram buckets.
+     */
+    public PrefixStatistics(List<FullTuple> sorted, int buckets)
+    {
+        if (buckets < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        int size = sorted.size();
+        int arity = size == 0 ? 0 : Fields.arity(sorted.get(0));
+        int count = Math.min(buckets, size);
+        HyperLogLog[] sketches = new HyperLogLog[arity];
+        for (int i = 0; i < arity; i++)
+        {
+            sketches[i] = new HyperLogLog();
+        }
+        Object[][] boundaries = new Object[count][];
+        Object[] fields = null;
+        int boundary = 0;
+        for (int i = 0; i < size; i++)
+        {
+            fields = Fields.extract(sorted.get(i), arity);
+            long hash = 1;
+            for (int j = 0; j < arity; j++)
+            {
+                hash = HyperLogLog.mix(31 * hash + HyperLogLog.mix(fields[j] == null ? 0 : fields[j].hashCode()));
+                sketches[j].add(hash);
+            }
+            if (boundary < count && i == (int) ((long) boundary * size / count))
+            {
+                boundaries[boundary++] = fields;
+            }
+        }
+        this.size = size;
+        this.arity = arity;
+        this.depth = count == 0 ? 0 : (double) size / count;
+        this.boundaries = boundaries;
+        this.last = fields;
+        this.distinct = new long[arity];
+        for (int i = 0; i < arity; i++)
+        {
+            distinct[i] = Math.max(1, Math.min(size, sketches[i].estimate()));
+        }
+    }
+
+    /**
+     * Get the number of full tuples in the list.
+     * 
+     * @return The number of full tuples.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Estimate the number of distinct prefixes of the given length.
+     * 
+     * @param length
+     *            The prefix length from one to the number of fields in the
+     *            full tuple.
+     * @return The estimated number of distinct prefixes.
+     */
+    public long distinct(int length)
+    {
+        return distinct[length - 1];
+    }
+
+    /**
+     * Estimate the number of full tuples that match the given partial tuple.
+     * 
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return The estimated number of matching full tuples.
+     */
+    public <PartialTuple extends Tuple<?, ?>> long estimateMatches(Partial<FullTuple, PartialTuple> partial, PartialTuple probe)
+    {
+        int shared = partial.getSharedCount();
+        if (size == 0 || shared > arity)
+        {
+            return 0;
+        }
+        Object[] fields = Fields.extract(probe, shared);
+        if (Fields.compare(fields, boundaries[0], shared) < 0 || Fields.compare(fields, last, shared) > 0)
+        {
+            return 0;
+        }
+        int lower = bound(fields, shared, 0, 1);
+        int upper = bound(fields, shared, lower, 0);
+        long average = Math.max(1, Math.round(size / (double) distinct[shared - 1]));
+        if (lower == upper)
+        {
+            return Math.min(average, Math.max(1, Math.round(depth)));
+        }
+        return Math.min(size, Math.max(average, Math.round((upper - lower) * depth)));
+    }
+
+    /**
+     * Find the first bucket boundary whose prefix compared against the given
+     * fields is less than the limit.
+     * 
+     * @param fields
+     *            The partial fields.
+     * @param shared
+     *            The number of partial fields.
+     * @param from
+     *            The boundary to start searching from.
+     * @param limit
+     *            One to find the first boundary greater than or equal to the
+     *            fields, zero to find the first boundary greater.
+     * @return The index of the boundary.
+     */
+    private int bound(Object[] fields, int shared, int from, int limit)
+    {
+        int low = from;
+        int high = boundaries.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (Fields.compare(fields, boundaries[middle], shared) < limit)
+            {
+                high = middle;
+            }
+            else
+            {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
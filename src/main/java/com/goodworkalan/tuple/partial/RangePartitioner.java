@@ -0,0 +1,236 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Divides the ordered space of full tuples into shards of contiguous ranges,
+ * with split points chosen from a sample of the tuples so that the shards are
+ * of about equal size.
+ * <p>
+ * The sample is sorted in the order of a {@link TupleComparator} and a split
+ * point is taken at every shard length of the sample. A split point is either
+ * a whole sampled tuple or, if the partitioner is created with a
+ * {@link Partial}, the leading fields shared by the partial comparator, so
+ * that all the tuples that begin with the same partial tuple go to the same
+ * shard. Equal split points are removed, so there may be fewer shards than
+ * requested when the sample has few distinct prefixes.
+ * <p>
+ * A shard begins at its split point, shard zero has no split point. A full
+ * tuple is routed to its shard and a partial tuple to the range of shards
+ * that may contain tuples beginning with it, each with a binary search of the
+ * split points.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ */
+public class RangePartitioner<FullTuple extends Tuple<?, ?>>
+{
+    /** The split points in ascending order. */
+    private final List<Object[]> splits;
+
+    /**
+     * Create a partitioner whose split points are sampled tuples.
+     *
+     * @param sample
+     *            A sample of the tuples in any order.
+     * @param shards
+     *            The number of shards.
+     */
+    public RangePartitioner(List<FullTuple> sample, int shards)
+    {
+        this(sample, shards, -1);
+    }
+
+    /**
+     * Create a partitioner whose split points are the leading fields of
+     * sampled tuples shared by the given partial comparator.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param sample
+     *            A sample of the tuples in any order.
+     * @param shards
+     *            The number of shards.
+     */
+    public RangePartitioner(Partial<FullTuple, ?> partial, List<FullTuple> sample, int shards)
+    {
+        this(sample, shards, partial.getSharedCount());
+    }
+
+    /**
+     * Create a partitioner whose split points are the given number of leading
+     * fields of sampled tuples.
+     *
+     * @param sample
+     *            A sample of the tuples in any order.
+     * @param shards
+     *            The number of shards.
+     * @param count
+     *            The number of leading fields of a split point or -1 for all
+     *            of the fields.
+     */
+    private RangePartitioner(List<FullTuple> sample, int shards, int count)
+    {
+        if (shards < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        List<FullTuple> sorted = new ArrayList<FullTuple>(sample);
+        Collections.sort(sorted, new TupleComparator<FullTuple>());
+        List<Object[]> splits = new ArrayList<Object[]>();
+        for (int i = 1; i < shards && !sorted.isEmpty(); i++)
+        {
+            FullTuple tuple = sorted.get((int) ((long) i * sorted.size() / shards));
+            Object[] split = Fields.extract(tuple, count == -1 ? Fields.arity(tuple) : count);
+            if (splits.isEmpty() || Fields.compare(splits.get(splits.size() - 1), split, split.length) != 0)
+            {
+                splits.add(split);
+            }
+        }
+        this.splits = splits;
+    }
+
+    /**
+     * Choose a uniform random sample of the given size from the given tuples
+     * with reservoir sampling, reading the tuples once.
+     *
+     * @param tuples
+     *            The tuples.
+     * @param size
+     *            The size of the sample.
+     * @param random
+     *            The random number generator.
+     * @return The sample, with fewer elements if there are fewer tuples.
+     */
+    public static <T> List<T> sample(Iterator<? extends T> tuples, int size, Random random)
+    {
+        List<T> sample = new ArrayList<T>(size);
+        long seen = 0;
+        while (tuples.hasNext())
+        {
+            T tuple = tuples.next();
+            seen++;
+            if (sample.size() < size)
+            {
+                sample.add(tuple);
+            }
+            else
+            {
+                long index = (long) (random.nextDouble() * seen);
+                if (index < size)
+                {
+                    sample.set((int) index, tuple);
+                }
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Get the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount()
+    {
+        return splits.size() + 1;
+    }
+
+    /**
+     * Get the split point where the given shard begins.
+     *
+     * @param shard
+     *            The shard index, from one to the number of shards less one.
+     * @return The split point.
+     */
+    public FlatTuple getSplit(int shard)
+    {
+        return new FlatTuple(splits.get(shard - 1));
+    }
+
+    /**
+     * Get the shard of the given full tuple.
+     *
+     * @param tuple
+     *            The full tuple.
+     * @return The shard index.
+     */
+    public int route(FullTuple tuple)
+    {
+        int low = 0;
+        int high = splits.size();
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (Fields.compare(splits.get(middle), tuple) <= 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the range of shards that may contain tuples that begin with the
+     * fields of the given partial tuple. If the split points have no more
+     * fields than the partial tuple, the range is a single shard.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return The range of shard indexes.
+     */
+    public <PartialTuple extends Tuple<?, ?>> Run route(Partial<FullTuple, PartialTuple> partial, PartialTuple probe)
+    {
+        Object[] fields = Fields.extract(probe, partial.getSharedCount());
+        int first = count(fields, false);
+        int last = count(fields, true);
+        return new Run(first, last + 1);
+    }
+
+    /**
+     * Count the split points that are at or before the first tuple that
+     * begins with the given fields, or at or before the last tuple that begins
+     * with the given fields.
+     *
+     * @param fields
+     *            The partial fields.
+     * @param last
+     *            True to count the split points at or before the last tuple,
+     *            false to count those at or before the first tuple.
+     * @return The number of split points.
+     */
+    private int count(Object[] fields, boolean last)
+    {
+        int low = 0;
+        int high = splits.size();
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            Object[] split = splits.get(middle);
+            int compare = Fields.compare(split, fields, Math.min(split.length, fields.length));
+            if (compare < 0 || (compare == 0 && (last || split.length <= fields.length)))
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,112 @@
+package com.goodworkalan.tuple.partial;
+
+/**
+ * A contiguous run of tuples in a sorted list of full tuples, the tuples that
+ * match a partial tuple. The run is given as a start index, inclusive, and an
+ * end index, exclusive, so that an empty run still records the position where
+ * matching tuples would be inserted.
+ *
+ * @author Alan Gutierrez
+ */
+public final class Run
+{
+    /** The index of the first tuple in the run. */
+    private final int start;
+
+    /** The index one past the last tuple in the run. */
+    private final int end;
+
+    /**
+     * Create a run of tuples.
+     *
+     * @param start
+     *            The index of the first tuple in the run.
+     * @param end
+     *            The index one past the last tuple in the run.
+     */
+    public Run(int start, int end)
+    {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Get the index of the first tuple in the run.
+     *
+     * @return The index of the first tuple in the run.
+     */
+    public int getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Get the index one past the last tuple in the run.
+     *
+     * @return The index one past the last tuple in the run.
+     */
+    public int getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * Get the number of tuples in the run.
+     *
+     * @return The number of tuples in the run.
+     */
+    public int size()
+    {
+        return end - start;
+    }
+
+    /**
+     * Return true if the run contains no tuples.
+     *
+     * @return True if the run is empty.
+     */
+    public boolean isEmpty()
+    {
+        return start == end;
+    }
+
+    /**
+     * A run is equal to another run with the same start and end.
+     *
+     * @param object
+     *            The object to compare.
+     * @return True if the object is a run with the same start and end.
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof Run)
+        {
+            Run run = (Run) object;
+            return start == run.start && end == run.end;
+        }
+        return false;
+    }
+
+    /**
+     * Generate a hash code from the start and end.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode()
+    {
+        return start * 31 + end;
+    }
+
+    /**
+     * Return the run as a half open interval.
+     *
+     * @return A string representation of the run.
+     */
+    @Override
+    public String toString()
+    {
+        return "[" + start + ", " + end + ")";
+    }
+}
@@ -0,0 +1,40 @@
+package com.goodworkalan.tuple.partial;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stores the immutable sorted runs of a {@link SortedRunIndex}.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public interface RunStore<T>
+{
+    /**
+     * Store the given sorted tuples as a new run and return a random access
+     * list of the run.
+     *
+     * @param sorted
+     *            The tuples in sorted order.
+     * @param size
+     *            The number of tuples.
+     * @return A random access list of the stored run.
+     * @throws IOException
+     *             If an I/O error occurs.
+     */
+    public List<T> store(Iterator<T> sorted, int size) throws IOException;
+
+    /**
+     * Release a run that has been replaced. Readers that obtained the run
+     * before it was replaced may still be reading it. A run that was not
+     * created by this store, such as a full buffer of the index, is ignored.
+     *
+     * @param run
+     *            The run.
+     */
+    public void release(List<T> run);
+}
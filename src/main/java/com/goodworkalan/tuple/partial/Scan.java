@@ -0,0 +1,154 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy iterator over the full tuples in a sorted source that compare as
+ * equal to a comparable created by a {@link Partial}.
+ * <p>
+ * The tuples are pulled from the underlying source one at a time as the scan
+ * is iterated, so that a scan of a partial tuple that matches millions of
+ * full tuples holds only one full tuple at a time. A consumer that sends
+ * tuples downstream in batches can {@link #fill(Collection, int) fill} a
+ * reusable collection with at most the number of tuples it is ready to accept.
+ * <p>
+ * A scan of a sorted list begins with a binary search for the first matching
+ * tuple. A scan of a sorted iterator skips the tuples before the first
+ * matching tuple. In both cases the scan ends at the first tuple greater than
+ * the partial tuple.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class Scan<T> implements Iterator<T>
+{
+    /** The underlying sorted source. */
+    private final Iterator<T> iterator;
+
+    /** The comparable that selects the matching tuples. */
+    private final Comparable<? super T> comparable;
+
+    /** The next matching tuple. */
+    private T next;
+
+    /** True if the next matching tuple has been read from the source. */
+    private boolean hasNext;
+
+    /** True if the source is past the last matching tuple. */
+    private boolean done;
+
+    /**
+     * Create a scan of the full tuples in the given sorted list that compare
+     * as equal to the given comparable.
+     *
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param comparable
+     *            A comparable created by a partial comparator builder.
+     */
+    public Scan(List<T> sorted, Comparable<? super T> comparable)
+    {
+        this(sorted.listIterator(Search.bound(sorted, comparable, 0, sorted.size(), 1)), comparable);
+    }
+
+    /**
+     * Create a scan of the full tuples returned by the given sorted iterator
+     * that compare as equal to the given comparable.
+     *
+     * @param sorted
+     *            An iterator over full tuples in sorted order.
+     * @param comparable
+     *            A comparable created by a partial comparator builder.
+     */
+    public Scan(Iterator<T> sorted, Comparable<? super T> comparable)
+    {
+        this.iterator = sorted;
+        this.comparable = comparable;
+    }
+
+    /**
+     * Return true if there is another matching tuple, reading ahead one tuple
+     * from the underlying source if necessary.
+     *
+     * @return True if there is another matching tuple.
+     */
+    public boolean hasNext()
+    {
+        while (!hasNext && !done)
+        {
+            if (!iterator.hasNext())
+            {
+                done = true;
+                break;
+            }
+            T tuple = iterator.next();
+            int compare = comparable.compareTo(tuple);
+            if (compare == 0)
+            {
+                next = tuple;
+                hasNext = true;
+            }
+            else if (compare < 0)
+            {
+                done = true;
+            }
+        }
+        return hasNext;
+    }
+
+    /**
+     * Return the next matching tuple.
+     *
+     * @return The next matching tuple.
+     * @exception NoSuchElementException
+     *                If there are no more matching tuples.
+     */
+    public T next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        T tuple = next;
+        next = null;
+        hasNext = false;
+        return tuple;
+    }
+
+    /**
+     * Add at most the given number of matching tuples to the given collection.
+     *
+     * @param collection
+     *            The collection to fill.
+     * @param count
+     *            The maximum number of tuples to add.
+     * @return The number of tuples added, less than the count only when the
+     *         scan is complete.
+     */
+    public int fill(Collection<? super T> collection, int count)
+    {
+        int added = 0;
+        while (added < count && hasNext())
+        {
+            collection.add(next());
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * The scan is read only.
+     *
+     * @exception UnsupportedOperationException
+     *                Always.
+     */
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+}
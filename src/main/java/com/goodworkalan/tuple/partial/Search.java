@@ -0,0 +1,175 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Static methods for searching sorted lists of full tuples with the
+ * comparables created by a {@link Partial}.
+ * <p>
+ * The sorted list must support fast random access, such as an
+ * <code>ArrayList</code> or a list returned by <code>Arrays.asList</code>.
+ *
+ * @author Alan Gutierrez
+ */
+public final class Search
+{
+    /** Cannot be instantiated. */
+    private Search()
+    {
+    }
+
+    /**
+     * Find the first index in the given range of the sorted list where the
+     * comparable compared against the element is less than the limit, using a
+     * binary search. A limit of one finds the first element that is greater
+     * than or equal to the comparable, a limit of zero finds the first element
+     * that is greater than the comparable.
+     *
+     * @param sorted
+     *            The sorted list.
+     * @param comparable
+     *            The comparable.
+     * @param from
+     *            The start of the range to search, inclusive.
+     * @param to
+     *            The end of the range to search, exclusive.
+     * @param limit
+     *            One to find the lower bound, zero to find the upper bound.
+     * @return The index of the bound.
+     */
+    static <T> int bound(List<T> sorted, Comparable<? super T> comparable, int from, int to, int limit)
+    {
+        int low = from;
+        int high = to;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (comparable.compareTo(sorted.get(middle)) < limit)
+            {
+                high = middle;
+            }
+            else
+            {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the same bound as {@link #bound(List, Comparable, int, int, int)
+     * bound} but by galloping forward from the start of the range, doubling
+     * the step until the bound is passed, then searching the last step with a
+     * binary search. The cost is logarithmic in the distance from the start of
+     * the range to the bound, instead of the length of the range.
+     *
+     * @param sorted
+     *            The sorted list.
+     * @param comparable
+     *            The comparable.
+     * @param from
+     *            The start of the range to search, inclusive.
+     * @param to
+     *            The end of the range to search, exclusive.
+     * @param limit
+     *            One to find the lower bound, zero to find the upper bound.
+     * @return The index of the bound.
+     */
+    static <T> int gallop(List<T> sorted, Comparable<? super T> comparable, int from, int to, int limit)
+    {
+        int low = from;
+        int step = 1;
+        int high = from;
+        while (high < to && comparable.compareTo(sorted.get(high)) >= limit)
+        {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        return bound(sorted, comparable, low, Math.min(high, to), limit);
+    }
+
+    /**
+     * Find the run of full tuples in the sorted list that compare as equal to
+     * the given comparable.
+     *
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param comparable
+     *            A comparable created by a partial comparator builder.
+     * @return The run of matching tuples, empty if no tuples match.
+     */
+    public static <T> Run run(List<T> sorted, Comparable<? super T> comparable)
+    {
+        int start = bound(sorted, comparable, 0, sorted.size(), 1);
+        int end = bound(sorted, comparable, start, sorted.size(), 0);
+        return new Run(start, end);
+    }
+
+    /**
+     * Find the run of full tuples in the sorted list for each partial tuple in
+     * the given collection of partial tuples in a single pass over the sorted
+     * list.
+     * <p>
+     * The partial tuples are put in order and then matched in order, each
+     * search galloping forward from where the previous search ended, so that a
+     * large batch of partial tuples costs about one pass over the sorted list
+     * instead of one full binary search per partial tuple. A comparable is
+     * created only once for partial tuples that appear more than once.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param probes
+     *            The partial tuples to find.
+     * @return A list of runs of matching full tuples with one run for each
+     *         partial tuple in the order of the given collection.
+     */
+    public static <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+    List<Run> runs(Partial<FullTuple, PartialTuple> partial, List<FullTuple> sorted, Collection<PartialTuple> probes)
+    {
+        final int shared = partial.getSharedCount();
+        List<PartialTuple> partials = new ArrayList<PartialTuple>(probes);
+        final Object[][] fields = new Object[partials.size()][];
+        Integer[] order = new Integer[partials.size()];
+        for (int i = 0; i < order.length; i++)
+        {
+            fields[i] = Fields.extract(partials.get(i), shared);
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            public int compare(Integer left, Integer right)
+            {
+                return Fields.compare(fields[left], fields[right], shared);
+            }
+        });
+
+        Run[] runs = new Run[order.length];
+        int size = sorted.size();
+        int position = 0;
+        Run previous = null;
+        for (int i = 0; i < order.length; i++)
+        {
+            int index = order[i];
+            if (previous != null && Fields.compare(fields[order[i - 1]], fields[index], shared) == 0)
+            {
+                runs[index] = previous;
+                continue;
+            }
+            Comparable<FullTuple> comparable = partial.compare(partials.get(index));
+            int start = gallop(sorted, comparable, position, size, 1);
+            int end = gallop(sorted, comparable, start, size, 0);
+            runs[index] = previous = new Run(start, end);
+            position = end;
+        }
+        return Arrays.asList(runs);
+    }
+}
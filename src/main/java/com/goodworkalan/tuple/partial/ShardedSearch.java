@@ -0,0 +1,211 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Runs batches of partial tuple searches against a set of sorted shards of
+ * full tuples in parallel using an executor service.
+ * <p>
+ * A batch of partial tuples is split into chunks and each chunk is searched
+ * against each shard as a separate task using {@link Search#runs(Partial,
+ * List, Collection) Search.runs}, so that a batch of thousands of partial
+ * tuples against a few shards still occupies every thread of the executor.
+ * The executor is supplied by the caller and is not shut down by the sharded
+ * search. On a virtual machine that supports virtual threads, an executor that
+ * creates a virtual thread per task will keep shards that block on paging
+ * from occupying a platform thread. Otherwise, a fixed thread pool sized to
+ * the number of processors is a good choice.
+ * <p>
+ * A search waits at most the given timeout for the batch to complete. If it
+ * does not complete, the unfinished tasks are cancelled and a timeout
+ * exception is thrown. Interrupting the searching thread also cancels the
+ * unfinished tasks. The number of batches searched, the number that timed out
+ * and the total and maximum time spent in a batch are recorded for
+ * monitoring.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ * @param <PartialTuple>
+ *            The partial tuple type.
+ */
+public class ShardedSearch<FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+{
+    /** The partial comparator builder. */
+    private final Partial<FullTuple, PartialTuple> partial;
+
+    /** The sorted shards of full tuples. */
+    private final List<List<FullTuple>> shards;
+
+    /** The executor that runs the search tasks. */
+    private final ExecutorService executor;
+
+    /** The maximum number of partial tuples searched by a single task. */
+    private final int chunkSize;
+
+    /** The number of batches searched. */
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /** The number of batches that timed out. */
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /** The total nanoseconds spent searching batches. */
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    /** The maximum nanoseconds spent searching a single batch. */
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Create a sharded search.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param shards
+     *            The sorted shards of full tuples.
+     * @param executor
+     *            The executor that runs the search tasks.
+     * @param chunkSize
+     *            The maximum number of partial tuples searched by a single
+     *            task.
+     */
+    public ShardedSearch(Partial<FullTuple, PartialTuple> partial, List<List<FullTuple>> shards, ExecutorService executor, int chunkSize)
+    {
+        if (chunkSize < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        this.partial = partial;
+        this.shards = shards;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Search every shard for each of the given partial tuples.
+     *
+     * @param probes
+     *            The partial tuples to find.
+     * @param timeout
+     *            The maximum time to wait for the batch.
+     * @param unit
+     *            The unit of the timeout.
+     * @return A list with a list of runs for each shard, in the order of the
+     *         shards, where each list of runs contains one run for each
+     *         partial tuple in the order of the given collection.
+     * @throws InterruptedException
+     *             If the searching thread is interrupted.
+     * @throws TimeoutException
+     *             If the batch did not complete within the timeout.
+     * @throws ExecutionException
+     *             If a search task failed.
+     */
+    public List<List<Run>> search(Collection<PartialTuple> probes, long timeout, TimeUnit unit)
+    throws InterruptedException, TimeoutException, ExecutionException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            List<PartialTuple> partials = new ArrayList<PartialTuple>(probes);
+            List<Callable<List<Run>>> tasks = new ArrayList<Callable<List<Run>>>();
+            for (final List<FullTuple> shard : shards)
+            {
+                for (int i = 0; i < partials.size(); i += chunkSize)
+                {
+                    final List<PartialTuple> chunk = partials.subList(i, Math.min(i + chunkSize, partials.size()));
+                    tasks.add(new Callable<List<Run>>()
+                    {
+                        public List<Run> call()
+                        {
+                            return Search.runs(partial, shard, chunk);
+                        }
+                    });
+                }
+            }
+            List<Future<List<Run>>> futures = executor.invokeAll(tasks, timeout, unit);
+            List<List<Run>> results = new ArrayList<List<Run>>(shards.size());
+            int chunks = tasks.size() / Math.max(shards.size(), 1);
+            for (int i = 0; i < shards.size(); i++)
+            {
+                List<Run> runs = new ArrayList<Run>(partials.size());
+                for (int j = 0; j < chunks; j++)
+                {
+                    try
+                    {
+                        runs.addAll(futures.get(i * chunks + j).get());
+                    }
+                    catch (CancellationException e)
+                    {
+                        timeoutCount.incrementAndGet();
+                        throw new TimeoutException();
+                    }
+                }
+                results.add(runs);
+            }
+            return results;
+        }
+        finally
+        {
+            long elapsed = System.nanoTime() - start;
+            batchCount.incrementAndGet();
+            totalNanos.addAndGet(elapsed);
+            long max = maxNanos.get();
+            while (elapsed > max && !maxNanos.compareAndSet(max, elapsed))
+            {
+                max = maxNanos.get();
+            }
+        }
+    }
+
+    /**
+     * Get the number of batches searched, including batches that failed.
+     *
+     * @return The number of batches searched.
+     */
+    public long getBatchCount()
+    {
+        return batchCount.get();
+    }
+
+    /**
+     * Get the number of batches that did not complete within their timeout.
+     *
+     * @return The number of batches that timed out.
+     */
+    public long getTimeoutCount()
+    {
+        return timeoutCount.get();
+    }
+
+    /**
+     * Get the total nanoseconds spent searching batches.
+     *
+     * @return The total nanoseconds spent searching batches.
+     */
+    public long getTotalNanos()
+    {
+        return totalNanos.get();
+    }
+
+    /**
+     * Get the maximum nanoseconds spent searching a single batch.
+     *
+     * @return The maximum nanoseconds spent searching a single batch.
+     */
+    public long getMaxNanos()
+    {
+        return maxNanos.get();
+    }
+}
@@ -1,7 +1,6 @@
 package com.goodworkalan.tuple.partial;
 
 import com.mallardsoft.tuple.Tuple;
-import com.mallardsoft.tuple.Variable;
 
 /**
  * A type structure that represents a field shared by the full and partial
@@ -28,11 +27,12 @@ public class Shared<First extends Comparable<First>,
                     Rest extends Comparable<Rest>>
 implements ComparableServer<Tuple<First, PartialRest>, Tuple<First, Rest>>
 {
-    ComparableServer<PartialRest, Rest> newComparable;
+    /** The number of shared fields from this node to the end of the chain. */
+    private final int shared;
     
     Shared(ComparableServer<PartialRest, Rest> newComparable)
     {
-        this.newComparable = newComparable;
+        this.shared = newComparable instanceof Shared ? ((Shared<?, ?, ?>) newComparable).shared + 1 : 1;
     }
     
     /**
@@ -51,47 +51,37 @@ implements ComparableServer<Tuple<First, PartialRest>, Tuple<First, Rest>>
     }
 
     /**
-     * Create a comparable that will compare the field common to both the full
-     * and partial tuples that and then pass the rest of the full and partial
-     * tuples to the next test in the tree-like structure.
+     * Create a partial comparator builder that compares partial tuples of the
+     * type structure built so far against full tuples of the type structure
+     * built so far. This is the way to build a partial comparator builder for
+     * tuples of any length, including tuples longer than the named tuples.
+     * 
+     * @return A partial comparator builder for this type structure.
+     */
+    public Partial<Tuple<First, Rest>, Tuple<First, PartialRest>> partial()
+    {
+        return new Partial<Tuple<First, Rest>, Tuple<First, PartialRest>>(this, shared);
+    }
+
+    /**
+     * Create a comparable that will compare the fields common to both the full
+     * and partial tuples, starting with the field of this node and continuing
+     * with the fields of the shared nodes that follow it in the tree-like
+     * structure.
+     * <p>
+     * The shared fields are extracted from the partial tuple once, when the
+     * comparable is created, and compared against the full tuple in a single
+     * loop, so the cost of a comparison does not depend on the depth of the
+     * tree-like structure beyond the number of fields compared.
      * 
      * @param partial
      *            The partial structure.
-     * @return A negative integer, zero, or a positive integer as this field is
-     *         less than, equal to, or greater than the field in the specified
-     *         partial tuple.
+     * @return A comparable that returns a negative integer, zero, or a
+     *         positive integer as the partial tuple is less than, equal to, or
+     *         greater than the shared fields of the full tuple.
      */
     public Comparable<Tuple<First, Rest>> comparable(Tuple<First, PartialRest> partial)
     {
-        Variable<First> v1 = new Variable<First>();
-        final PartialRest r1 = partial.extract(v1);
-        final First f1 = v1.get();
-        return new Comparable<Tuple<First,Rest>>()
-        {
-            public int compareTo(Tuple<First, Rest> o)
-            {
-                Variable<First> v2 = new Variable<First>();
-                Rest r2 = o.extract(v2);
-                First f2 = v2.get();
-                if (f1 == null)
-                {
-                    if (f2 == null)
-                    {
-                        return newComparable.comparable(r1).compareTo(r2);
-                    }
-                    return -1;
-                }
-                else if (f2 == null)
-                {
-                    return 1;
-                }
-                int compare = f1.compareTo(v2.get());
-                if (compare == 0)
-                {
-                    return newComparable.comparable(r1).compareTo(r2);
-                }
-                return compare;
-            }
-        };
+        return new FieldsComparable<Tuple<First, Rest>>(Fields.extract(partial, shared));
     }
 }
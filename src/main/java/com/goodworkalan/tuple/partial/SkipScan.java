@@ -0,0 +1,147 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * An iterator over the first full tuple of each distinct prefix in a sorted
+ * list of full tuples, where a prefix is the leading fields shared by a
+ * {@link Partial}.
+ * <p>
+ * After returning the first tuple of a prefix, the scan finds the end of the
+ * run of tuples with that prefix by galloping forward from its start, so that
+ * the tuples within the run are not read. The cost of the scan is the number
+ * of distinct prefixes times the logarithm of the length of their runs,
+ * instead of the number of tuples. The run of the prefix last returned is
+ * available from {@link #getRun()}, its last tuple is the greatest tuple with
+ * the prefix.
+ * <p>
+ * The sorted list can be any random access list, such as an array list or a
+ * run of a {@link SortedRunIndex} stored in a file.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class SkipScan<T extends Tuple<?, ?>> implements Iterator<T>
+{
+    /** The sorted list of full tuples. */
+    private final List<T> sorted;
+
+    /** The number of leading fields in a prefix. */
+    private final int count;
+
+    /** The index one past the last tuple to scan. */
+    private final int to;
+
+    /** The index of the first tuple of the prefix last returned. */
+    private int start;
+
+    /** The index of the first tuple of the next prefix. */
+    private int end;
+
+    /**
+     * Create a scan of the distinct prefixes of the given sorted list.
+     *
+     * @param partial
+     *            The partial comparator builder that defines the prefix.
+     * @param sorted
+     *            The sorted list of full tuples.
+     */
+    public SkipScan(Partial<T, ?> partial, List<T> sorted)
+    {
+        this(partial, sorted, new Run(0, sorted.size()));
+    }
+
+    /**
+     * Create a scan of the distinct prefixes of the tuples in the given range
+     * of the given sorted list.
+     *
+     * @param partial
+     *            The partial comparator builder that defines the prefix.
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param range
+     *            The range of tuples to scan.
+     */
+    public SkipScan(Partial<T, ?> partial, List<T> sorted, TupleRange<T> range)
+    {
+        this(partial, sorted, range.resolve(sorted));
+    }
+
+    /**
+     * Create a scan of the distinct prefixes of the given run of the given
+     * sorted list.
+     *
+     * @param partial
+     *            The partial comparator builder that defines the prefix.
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @param run
+     *            The run of tuples to scan.
+     */
+    private SkipScan(Partial<T, ?> partial, List<T> sorted, Run run)
+    {
+        this.sorted = sorted;
+        this.count = partial.getSharedCount();
+        this.start = run.getStart();
+        this.end = run.getStart();
+        this.to = run.getEnd();
+    }
+
+    /**
+     * Return true if there is another distinct prefix.
+     *
+     * @return True if there are more prefixes.
+     */
+    public boolean hasNext()
+    {
+        return end < to;
+    }
+
+    /**
+     * Return the first tuple of the next distinct prefix and skip the other
+     * tuples with the same prefix.
+     *
+     * @return The first tuple of the next prefix.
+     * @exception NoSuchElementException
+     *                If there are no more prefixes.
+     */
+    public T next()
+    {
+        if (end >= to)
+        {
+            throw new NoSuchElementException();
+        }
+        T tuple = sorted.get(end);
+        start = end;
+        end = Search.gallop(sorted, new FieldsComparable<T>(Fields.extract(tuple, count)), start + 1, to, 0);
+        return tuple;
+    }
+
+    /**
+     * Get the run of tuples with the prefix last returned by
+     * {@link #next()}.
+     *
+     * @return The run of the last prefix.
+     */
+    public Run getRun()
+    {
+        return new Run(start, end);
+    }
+
+    /**
+     * Not supported.
+     *
+     * @exception UnsupportedOperationException
+     *                Always.
+     */
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,441 @@
+package com.goodworkalan.tuple.partial;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * An index of full tuples that accepts writes without sorting the whole index
+ * again, made of a small sorted buffer and immutable sorted runs, in the
+ * manner of a log structured merge tree.
+ * <p>
+ * A tuple is written into the buffer at the insertion point found with a
+ * binary search, so a write costs a logarithmic number of comparisons and the
+ * shift of the tuples after the insertion point by a single array copy,
+ * without allocation. When the buffer is full it becomes an immutable run and
+ * a new buffer is started. Runs of
+ * similar size are merged into a single run written by a {@link RunStore},
+ * either on the heap or to an encoded file, when there are a merge factor of
+ * them, so that each tuple is rewritten a number of times logarithmic in the
+ * size of the index. Merging is done by the given executor so that writes do
+ * not wait for it, or by the writing thread if there is no executor.
+ * <p>
+ * A read searches the buffer and each run with the comparables created by a
+ * {@link Partial} or with a {@link TupleRange}, and merges the matching tuples
+ * of each run in the order of a {@link TupleComparator}. A reader takes a
+ * consistent view of a copy of the buffer followed by the runs, and continues
+ * to read that view while runs are merged and replaced. The view is kept
+ * until the next write, so readers search it without locking the index. The
+ * first reader after a write takes the lock of the index and copies the
+ * buffer, which costs time in proportion to the size of the buffer, but the
+ * copy is shared by every reader until the next write, so writes in a batch
+ * are published by a single copy.
+ * <p>
+ * The index is a multiset, a tuple written twice is read twice.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class SortedRunIndex<T extends Tuple<?, ?>>
+{
+    /** The tuple order. */
+    private final TupleComparator<T> comparator = new TupleComparator<T>();
+
+    /** The store of merged runs. */
+    private final RunStore<T> store;
+
+    /** The executor that merges runs or null to merge when writing. */
+    private final Executor executor;
+
+    /** The number of tuples in a full buffer. */
+    private final int bufferSize;
+
+    /** The number of runs of similar size that are merged together. */
+    private final int mergeFactor;
+
+    /** The sorted buffer, guarded by this index. */
+    private final List<T> buffer;
+
+    /** The immutable list of immutable runs, replaced on each change. */
+    private volatile List<List<T>> runs;
+
+    /**
+     * A copy of the buffer followed by the runs, or null if it must be taken
+     * again because the index changed.
+     */
+    private volatile List<List<T>> view;
+
+    /** Whether runs are being merged. */
+    private final AtomicBoolean merging = new AtomicBoolean();
+
+    /** The exception raised by the last background merge or null. */
+    private volatile IOException failure;
+
+    /**
+     * Create an empty index.
+     *
+     * @param store
+     *            The store of merged runs.
+     * @param executor
+     *            The executor that merges runs or null to merge when writing.
+     * @param bufferSize
+     *            The number of tuples in a full buffer.
+     * @param mergeFactor
+     *            The number of runs of similar size that are merged together,
+     *            at least two.
+     */
+    public SortedRunIndex(RunStore<T> store, Executor executor, int bufferSize, int mergeFactor)
+    {
+        if (bufferSize < 1 || mergeFactor < 2)
+        {
+            throw new IllegalArgumentException();
+        }
+        this.store = store;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.mergeFactor = mergeFactor;
+        this.buffer = new ArrayList<T>(bufferSize);
+        this.runs = Collections.emptyList();
+    }
+
+    /**
+     * Add a tuple to the index.
+     *
+     * @param tuple
+     *            The tuple.
+     */
+    public void add(T tuple)
+    {
+        boolean merge;
+        synchronized (this)
+        {
+            int low = 0;
+            int high = buffer.size();
+            while (low < high)
+            {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(buffer.get(mid), tuple) <= 0)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid;
+                }
+            }
+            buffer.add(low, tuple);
+            view = null;
+            merge = buffer.size() >= bufferSize && flushBuffer();
+        }
+        if (merge)
+        {
+            merge();
+        }
+    }
+
+    /**
+     * Make the buffer an immutable run even if it is not full.
+     */
+    public void flush()
+    {
+        boolean merge;
+        synchronized (this)
+        {
+            merge = flushBuffer();
+        }
+        if (merge)
+        {
+            merge();
+        }
+    }
+
+    /**
+     * Make the buffer an immutable run, if it is not empty, and return true if
+     * runs should be merged. Called while holding the lock of the index.
+     *
+     * @return True if runs should be merged.
+     */
+    private boolean flushBuffer()
+    {
+        if (!buffer.isEmpty())
+        {
+            List<List<T>> next = new ArrayList<List<T>>(runs);
+            next.add(Collections.unmodifiableList(new ArrayList<T>(buffer)));
+            buffer.clear();
+            runs = Collections.unmodifiableList(next);
+            view = null;
+        }
+        return isMergeNeeded();
+    }
+
+    /**
+     * Return true if a tier of runs of similar size has a merge factor of
+     * runs.
+     *
+     * @return True if runs should be merged.
+     */
+    private boolean isMergeNeeded()
+    {
+        return !TieredMerge.select(runs, bufferSize, mergeFactor).isEmpty();
+    }
+
+    /**
+     * Merge the full tiers of runs with the executor, or in this thread if
+     * there is no executor. An exception raised by a merge in the executor is
+     * kept and can be obtained with {@link #getMergeFailure()}.
+     */
+    private void merge()
+    {
+        if (executor == null)
+        {
+            mergeTiers();
+        }
+        else
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    mergeTiers();
+                }
+            });
+        }
+    }
+
+    /**
+     * Merge the runs of each tier that has a merge factor of runs until no
+     * tier is full, unless another thread is merging runs, in which case that
+     * thread will find the full tiers. An exception raised by the run store
+     * is kept and can be obtained with {@link #getMergeFailure()}.
+     */
+    private void mergeTiers()
+    {
+        do
+        {
+            if (!merging.compareAndSet(false, true))
+            {
+                return;
+            }
+            try
+            {
+                List<List<T>> merged;
+                while (!(merged = TieredMerge.select(runs, bufferSize, mergeFactor)).isEmpty())
+                {
+                    replace(merged);
+                }
+                failure = null;
+            }
+            catch (IOException e)
+            {
+                failure = e;
+                return;
+            }
+            finally
+            {
+                merging.set(false);
+            }
+        }
+        while (isMergeNeeded());
+    }
+
+    /**
+     * Merge all of the current runs into a single run written by the run
+     * store, rewriting the whole index. Writes do not call this method, they
+     * merge only runs of similar size, but it can be called to make reads
+     * search a single run. Runs created while merging are kept beside the
+     * merged run. Returns false without merging if another thread is merging
+     * runs.
+     *
+     * @return True if the runs were merged.
+     * @throws IOException
+     *             If an I/O error occurs in the run store, in which case the
+     *             runs are not replaced.
+     */
+    public boolean compact() throws IOException
+    {
+        if (!merging.compareAndSet(false, true))
+        {
+            return false;
+        }
+        try
+        {
+            List<List<T>> runs = this.runs;
+            if (runs.size() > 1)
+            {
+                replace(runs);
+            }
+            return true;
+        }
+        finally
+        {
+            merging.set(false);
+        }
+    }
+
+    /**
+     * Merge the given runs into a single run written by the run store, replace
+     * them with the merged run and release them. Called while merging.
+     *
+     * @param merged
+     *            The runs to merge.
+     * @throws IOException
+     *             If an I/O error occurs in the run store, in which case the
+     *             runs are not replaced.
+     */
+    private void replace(List<List<T>> merged) throws IOException
+    {
+        List<Iterator<T>> iterators = new ArrayList<Iterator<T>>(merged.size());
+        int size = 0;
+        for (List<T> run : merged)
+        {
+            iterators.add(run.iterator());
+            size += run.size();
+        }
+        List<T> run = store.store(new MergeIterator<T>(iterators, comparator), size);
+        synchronized (this)
+        {
+            runs = TieredMerge.replace(runs, merged, run);
+            view = null;
+        }
+        for (List<T> replaced : merged)
+        {
+            store.release(replaced);
+        }
+    }
+
+    /**
+     * Get the exception raised by the last merge of runs, or null if the last
+     * merge succeeded. The runs are not replaced by a merge that fails and will
+     * be merged again on the next flush of the buffer.
+     *
+     * @return The exception raised by the last merge or null.
+     */
+    public IOException getMergeFailure()
+    {
+        return failure;
+    }
+
+    /**
+     * Get a consistent view of a copy of the buffer followed by the runs,
+     * copying the buffer only if the index has changed since the last view.
+     *
+     * @return A list of sorted lists.
+     */
+    private List<List<T>> view()
+    {
+        List<List<T>> view = this.view;
+        if (view == null)
+        {
+            synchronized (this)
+            {
+                view = this.view;
+                if (view == null)
+                {
+                    List<List<T>> runs = this.runs;
+                    view = new ArrayList<List<T>>(runs.size() + 1);
+                    view.add(Collections.unmodifiableList(new ArrayList<T>(buffer)));
+                    view.addAll(runs);
+                    this.view = view = Collections.unmodifiableList(view);
+                }
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Get the number of immutable runs, not counting the buffer.
+     *
+     * @return The number of runs.
+     */
+    public int getRunCount()
+    {
+        return runs.size();
+    }
+
+    /**
+     * Get the number of tuples in the index.
+     *
+     * @return The number of tuples.
+     */
+    public int size()
+    {
+        int size = 0;
+        for (List<T> run : view())
+        {
+            size += run.size();
+        }
+        return size;
+    }
+
+    /**
+     * Iterate over all of the tuples in the index in order.
+     *
+     * @return An iterator over all of the tuples.
+     */
+    public Iterator<T> iterator()
+    {
+        return scan(TupleRange.<T>all());
+    }
+
+    /**
+     * Iterate in order over the tuples that the given comparable compares as
+     * equal.
+     *
+     * @param comparable
+     *            A comparable created by a {@link Partial}.
+     * @return An iterator over the matching tuples.
+     */
+    public Iterator<T> scan(Comparable<? super T> comparable)
+    {
+        List<List<T>> view = view();
+        List<Iterator<T>> iterators = new ArrayList<Iterator<T>>(view.size());
+        for (List<T> run : view)
+        {
+            Run found = Search.run(run, comparable);
+            iterators.add(run.subList(found.getStart(), found.getEnd()).iterator());
+        }
+        return new MergeIterator<T>(iterators, comparator);
+    }
+
+    /**
+     * Iterate in order over the tuples that begin with the fields of the given
+     * partial tuple.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return An iterator over the matching tuples.
+     */
+    public <P extends Tuple<?, ?>> Iterator<T> scan(Partial<T, P> partial, P probe)
+    {
+        return scan(partial.compare(probe));
+    }
+
+    /**
+     * Iterate in order over the tuples in the given range.
+     *
+     * @param range
+     *            The range.
+     * @return An iterator over the tuples in the range.
+     */
+    public Iterator<T> scan(TupleRange<T> range)
+    {
+        List<List<T>> view = view();
+        List<Iterator<T>> iterators = new ArrayList<Iterator<T>>(view.size());
+        for (List<T> run : view)
+        {
+            Run found = range.resolve(run);
+            iterators.add(run.subList(found.getStart(), found.getEnd()).iterator());
+        }
+        return new MergeIterator<T>(iterators, comparator);
+    }
+}
@@ -0,0 +1,154 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+
+/**
+ * A column of string values encoded as integer codes by an order preserving
+ * {@link StringDictionary}. A null value is encoded as
+ * {@link StringDictionary#NULL}, which is less than the code of any string,
+ * so that the codes are ordered in the same way as the strings they encode.
+ * <p>
+ * A filter looks up the code of the value to match once with a binary search
+ * of the dictionary and then compares integer codes. A value that is not in
+ * the dictionary is given a code that matches no row.
+ * <p>
+ * A column can share its dictionary with other columns and indexes. If
+ * strings added to a shared dictionary cause it to spread its codes out again,
+ * the codes of the column are no longer valid and the column must be created
+ * again.
+ *
+ * @author Alan Gutierrez
+ */
+public class StringColumn extends Column
+{
+    /** The dictionary that encodes the values. */
+    private final StringDictionary dictionary;
+
+    /** The generation of the dictionary when the values were encoded. */
+    private final int generation;
+
+    /** The code of the value of each row. */
+    private final int[] codes;
+
+    /**
+     * Create a column of the given values, building a dictionary of the
+     * distinct values.
+     *
+     * @param values
+     *            The values.
+     */
+    public StringColumn(String[] values)
+    {
+        this(new StringDictionary(Arrays.asList(values)), values);
+    }
+
+    /**
+     * Create a column of the given values, encoded by the given dictionary.
+     * Values that are not in the dictionary are added to it.
+     *
+     * @param dictionary
+     *            The dictionary.
+     * @param values
+     *            The values.
+     */
+    public StringColumn(StringDictionary dictionary, String[] values)
+    {
+        int[] codes = new int[values.length];
+        int generation;
+        do
+        {
+            generation = dictionary.getGeneration();
+            for (int i = 0; i < values.length; i++)
+            {
+                codes[i] = dictionary.encode(values[i]);
+            }
+        }
+        while (generation != dictionary.getGeneration());
+        this.dictionary = dictionary;
+        this.generation = generation;
+        this.codes = codes;
+    }
+
+    /**
+     * Get the dictionary that encodes the values.
+     *
+     * @return The dictionary.
+     */
+    public StringDictionary getDictionary()
+    {
+        return dictionary;
+    }
+
+    /**
+     * Get the code of the given value in the dictionary.
+     *
+     * @param value
+     *            The value.
+     * @return The code of the value.
+     * @exception ConcurrentModificationException
+     *                If the dictionary codes were spread out again since the
+     *                column was created.
+     */
+    private int probe(Object value)
+    {
+        if (dictionary.getGeneration() != generation)
+        {
+            throw new ConcurrentModificationException();
+        }
+        return dictionary.probe((String) value);
+    }
+
+    @Override
+    public int size()
+    {
+        return codes.length;
+    }
+
+    @Override
+    public Object get(int row)
+    {
+        return dictionary.decode(codes[row]);
+    }
+
+    /**
+     * Get the code of the value of the given row.
+     *
+     * @param row
+     *            The row index.
+     * @return The code of the value of the row.
+     */
+    public int getCode(int row)
+    {
+        return codes[row];
+    }
+
+    @Override
+    int select(Object value, int[] selection)
+    {
+        int match = probe(value);
+        int[] codes = this.codes;
+        int count = 0;
+        for (int i = 0; i < codes.length; i++)
+        {
+            selection[count] = i;
+            count += codes[i] == match ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Override
+    int filter(Object value, int[] selection, int count)
+    {
+        int match = probe(value);
+        int[] codes = this.codes;
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int row = selection[i];
+            selection[kept] = row;
+            kept += codes[row] == match ? 1 : 0;
+        }
+        return kept;
+    }
+}
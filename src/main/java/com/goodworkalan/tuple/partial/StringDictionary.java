@@ -0,0 +1,319 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * An order preserving dictionary that maps strings to integer codes, so that
+ * string fields can be stored and compared as integers.
+ * <p>
+ * If one string is less than another, its code is less than the code of the
+ * other. Full tuples can store the code of a string field in place of the
+ * string. A {@link #partial(Partial, Partial, int...) partial} comparator
+ * builder created by the dictionary takes partial tuples with the strings
+ * themselves and translates each string once, when the comparable is created,
+ * into the {@link #probe(String) probe} code of the string. The comparisons of
+ * the search then compare integers.
+ * <p>
+ * Codes are even integers spread across the range of an integer, leaving room
+ * between codes. A string that is not in the dictionary is added with
+ * {@link #encode(String) encode}, which gives it the even code half way
+ * between the codes of its neighbors, so that the codes already stored in an
+ * index remain valid. A string that is not in the dictionary is probed with
+ * the odd code between the codes of its neighbors, which orders correctly
+ * against every stored code and matches none of them. A null string is coded
+ * as {@link #NULL}, which is less than every other code.
+ * <p>
+ * When there is no room left between two neighbors, every code is spread out
+ * again and the {@link #getGeneration() generation} of the dictionary is
+ * incremented. Codes of an earlier generation must be encoded again. This
+ * only happens after many strings have been added between the same two
+ * neighbors.
+ * <p>
+ * Lookups do not lock and can run concurrently with an encode.
+ *
+ * @author Alan Gutierrez
+ */
+public class StringDictionary
+{
+    /** The code of a null string. */
+    public final static int NULL = Integer.MIN_VALUE;
+
+    /** The exclusive lower bound of the codes of strings. */
+    private final static int LOW = Integer.MIN_VALUE + 2;
+
+    /** The exclusive upper bound of the codes of strings. */
+    private final static int HIGH = Integer.MAX_VALUE - 1;
+
+    /** The current immutable state of the dictionary. */
+    private volatile Entries entries;
+
+    /**
+     * Create an empty dictionary.
+     */
+    public StringDictionary()
+    {
+        this(Collections.<String>emptySet());
+    }
+
+    /**
+     * Create a dictionary of the given strings. Null strings are ignored.
+     * 
+     * @param strings
+     *            The strings.
+     */
+    public StringDictionary(Collection<String> strings)
+    {
+        TreeSet<String> distinct = new TreeSet<String>();
+        for (String string : strings)
+        {
+            if (string != null)
+            {
+                distinct.add(string);
+            }
+        }
+        this.entries = spread(distinct.toArray(new String[distinct.size()]), 0);
+    }
+
+    /**
+     * Assign evenly spread codes to the given sorted strings.
+     * 
+     * @param strings
+     *            The sorted distinct strings.
+     * @param generation
+     *            The generation of the codes.
+     * @return The dictionary state.
+     */
+    private static Entries spread(String[] strings, int generation)
+    {
+        long step = (((long) HIGH - LOW) / (strings.length + 1)) & ~1L;
+        if (step < 2)
+        {
+            throw new IllegalStateException();
+        }
+        int[] codes = new int[strings.length];
+        for (int i = 0; i < codes.length; i++)
+        {
+            codes[i] = (int) (LOW + step * (i + 1));
+        }
+        return new Entries(strings, codes, generation);
+    }
+
+    /**
+     * Get the number of strings in the dictionary.
+     * 
+     * @return The number of strings.
+     */
+    public int size()
+    {
+        return entries.strings.length;
+    }
+
+    /**
+     * Get the generation of the codes, incremented each time the codes are
+     * spread out again.
+     * 
+     * @return The generation of the codes.
+     */
+    public int getGeneration()
+    {
+        return entries.generation;
+    }
+
+    /**
+     * Get the code of the given string, adding the string to the dictionary if
+     * it is not already present.
+     * 
+     * @param string
+     *            The string.
+     * @return The code of the string.
+     */
+    public synchronized int encode(String string)
+    {
+        if (string == null)
+        {
+            return NULL;
+        }
+        Entries entries = this.entries;
+        String[] strings = entries.strings;
+        int[] codes = entries.codes;
+        int index = Arrays.binarySearch(strings, string);
+        if (index >= 0)
+        {
+            return codes[index];
+        }
+        index = -index - 1;
+        String[] newStrings = new String[strings.length + 1];
+        System.arraycopy(strings, 0, newStrings, 0, index);
+        newStrings[index] = string;
+        System.arraycopy(strings, index, newStrings, index + 1, strings.length - index);
+        long lower = index == 0 ? LOW : codes[index - 1];
+        long upper = index == codes.length ? HIGH : codes[index];
+        int code = (int) ((lower + upper) / 2) & ~1;
+        if (code <= lower || code >= upper)
+        {
+            this.entries = spread(newStrings, entries.generation + 1);
+            return this.entries.codes[index];
+        }
+        int[] newCodes = new int[codes.length + 1];
+        System.arraycopy(codes, 0, newCodes, 0, index);
+        newCodes[index] = code;
+        System.arraycopy(codes, index, newCodes, index + 1, codes.length - index);
+        this.entries = new Entries(newStrings, newCodes, entries.generation);
+        return code;
+    }
+
+    /**
+     * Get the code to use to search for the given string. If the string is in
+     * the dictionary, this is the code of the string. Otherwise, it is an odd
+     * code that is greater than the codes of the lesser strings and less than
+     * the codes of the greater strings in the dictionary.
+     * 
+     * @param string
+     *            The string.
+     * @return The code to search for.
+     */
+    public int probe(String string)
+    {
+        if (string == null)
+        {
+            return NULL;
+        }
+        Entries entries = this.entries;
+        int index = Arrays.binarySearch(entries.strings, string);
+        if (index >= 0)
+        {
+            return entries.codes[index];
+        }
+        index = -index - 1;
+        if (index > 0)
+        {
+            return entries.codes[index - 1] + 1;
+        }
+        return entries.codes.length == 0 ? 1 : entries.codes[0] - 1;
+    }
+
+    /**
+     * Create a partial comparator builder that compares partial tuples with
+     * strings in the given fields against full tuples that store the
+     * {@link #encode(String) codes} of those strings. Each string is
+     * translated into its {@link #probe(String) probe} code once, when the
+     * comparable is created, and the comparisons compare the codes and the
+     * other shared fields as the given partial comparator builder of the
+     * encoded tuples would.
+     * <p>
+     * The type of the partial tuple is taken from a partial comparator
+     * builder of the decoded tuples, the full tuples with strings in place of
+     * the codes, which is used only for its type and its number of shared
+     * fields. The fields that are not translated must have the same types in
+     * the decoded and encoded tuples, which cannot be checked, and each
+     * translated field must be a string field of the decoded tuple, which is
+     * checked when the comparable is created.
+     * <p>
+     * The codes stored in the full tuples must be of the current generation
+     * of the dictionary.
+     * 
+     * @param decoded
+     *            The partial comparator builder of the decoded tuples.
+     * @param encoded
+     *            The partial comparator builder of the encoded tuples.
+     * @param fields
+     *            The indexes of the string fields of the partial tuple.
+     * @return A partial comparator builder that takes string fields.
+     * @exception IllegalArgumentException
+     *                If the builders do not share the same number of fields
+     *                or if a field index is not the index of a shared field.
+     */
+    public <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>> Partial<FullTuple, PartialTuple> partial(Partial<?, PartialTuple> decoded, Partial<FullTuple, ?> encoded, int... fields)
+    {
+        int shared = encoded.getSharedCount();
+        if (decoded.getSharedCount() != shared)
+        {
+            throw new IllegalArgumentException();
+        }
+        boolean[] strings = new boolean[shared];
+        for (int field : fields)
+        {
+            if (field < 0 || field >= shared)
+            {
+                throw new IllegalArgumentException();
+            }
+            strings[field] = true;
+        }
+        return new Partial<FullTuple, PartialTuple>(new DictionaryComparableServer<PartialTuple, FullTuple>(this, shared, strings), shared);
+    }
+
+    /**
+     * Return true if the given string is in the dictionary.
+     * 
+     * @param string
+     *            The string.
+     * @return True if the string is in the dictionary.
+     */
+    public boolean contains(String string)
+    {
+        return string == null || Arrays.binarySearch(entries.strings, string) >= 0;
+    }
+
+    /**
+     * Get the string for the given code.
+     * 
+     * @param code
+     *            The code.
+     * @return The string.
+     * @exception IllegalArgumentException
+     *                If the code is not the code of a string in the current
+     *                generation of the dictionary.
+     */
+    public String decode(int code)
+    {
+        if (code == NULL)
+        {
+            return null;
+        }
+        Entries entries = this.entries;
+        int index = Arrays.binarySearch(entries.codes, code);
+        if (index < 0)
+        {
+            throw new IllegalArgumentException();
+        }
+        return entries.strings[index];
+    }
+
+    /**
+     * An immutable state of the dictionary, replaced as a whole when a string
+     * is added.
+     */
+    private final static class Entries
+    {
+        /** The sorted strings. */
+        public final String[] strings;
+
+        /** The code of each string. */
+        public final int[] codes;
+
+        /** The generation of the codes. */
+        public final int generation;
+
+        /**
+         * Create a dictionary state.
+         * 
+         * @param strings
+         *            The sorted strings.
+         * @param codes
+         *            The code of each string.
+         * @param generation
+         *            The generation of the codes.
+         */
+        public Entries(String[] strings, int[] codes, int generation)
+        {
+            this.strings = strings;
+            this.codes = codes;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The size tiered merge policy of the runs of a {@link SortedRunIndex} and a
+ * {@link VersionedIndex}, which merges only runs of similar size.
+ * <p>
+ * The tier of a run is the number of times the size of a full buffer must be
+ * multiplied by the merge factor to hold the run, so a full buffer is in tier
+ * zero and the merge of a merge factor of full buffers is in tier one. When a
+ * tier has a merge factor of runs, the runs of the tier are merged into a
+ * single run of a higher tier. A tuple is rewritten once for each tier it
+ * passes through, so it is rewritten a number of times logarithmic in the
+ * size of the index, and there are never more than one less than the merge
+ * factor runs in each tier.
+ * <p>
+ * The runs are given as an immutable list of immutable runs, which does not
+ * include the buffer of the index.
+ *
+ * @author Alan Gutierrez
+ */
+final class TieredMerge
+{
+    /**
+     * This class cannot be instantiated.
+     */
+    private TieredMerge()
+    {
+    }
+
+    /**
+     * Get the tier of a run of the given size.
+     *
+     * @param size
+     *            The size of the run.
+     * @param bufferSize
+     *            The number of tuples in a full buffer.
+     * @param factor
+     *            The merge factor.
+     * @return The tier of the run.
+     */
+    public static int tier(int size, int bufferSize, int factor)
+    {
+        int tier = 0;
+        for (long limit = bufferSize; size > limit; limit *= factor)
+        {
+            tier++;
+        }
+        return tier;
+    }
+
+    /**
+     * Select the runs of the lowest tier that has at least the merge factor
+     * of runs, or return an empty list if no tier is full.
+     *
+     * @param runs
+     *            The runs.
+     * @param bufferSize
+     *            The number of tuples in a full buffer.
+     * @param factor
+     *            The merge factor.
+     * @return The runs to merge, in the order of the given runs.
+     */
+    public static <E> List<List<E>> select(List<List<E>> runs, int bufferSize, int factor)
+    {
+        int count = runs.size();
+        int[] tiers = new int[count];
+        int[] sizes = new int[Integer.SIZE + 1];
+        for (int i = 0; i < count; i++)
+        {
+            tiers[i] = tier(runs.get(i).size(), bufferSize, factor);
+            sizes[tiers[i]]++;
+        }
+        int full = 0;
+        while (full < sizes.length && sizes[full] < factor)
+        {
+            full++;
+        }
+        List<List<E>> selected = new ArrayList<List<E>>();
+        for (int i = 0; i < count; i++)
+        {
+            if (tiers[i] == full)
+            {
+                selected.add(runs.get(i));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Replace the given merged runs with the run they were merged into, in the
+     * place of the first of the merged runs. Runs added to the given runs
+     * since the merged runs were selected are kept. The merged runs are found
+     * by identity.
+     *
+     * @param runs
+     *            The current runs.
+     * @param merged
+     *            The merged runs.
+     * @param run
+     *            The run they were merged into, omitted if empty.
+     * @return A new immutable list of runs.
+     */
+    public static <E> List<List<E>> replace(List<List<E>> runs, List<List<E>> merged, List<E> run)
+    {
+        List<List<E>> next = new ArrayList<List<E>>(runs.size());
+        boolean placed = false;
+        for (List<E> current : runs)
+        {
+            boolean replaced = false;
+            for (List<E> old : merged)
+            {
+                replaced = replaced || old == current;
+            }
+            if (!replaced)
+            {
+                next.add(current);
+            }
+            else if (!placed)
+            {
+                placed = true;
+                if (!run.isEmpty())
+                {
+                    next.add(run);
+                }
+            }
+        }
+        return Collections.unmodifiableList(next);
+    }
+}
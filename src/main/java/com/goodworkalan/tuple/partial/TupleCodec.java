@@ -0,0 +1,150 @@
+package com.goodworkalan.tuple.partial;
+
+import java.nio.ByteBuffer;
+
+import com.mallardsoft.tuple.Tuple;
+import com.mallardsoft.tuple.Variable;
+
+/**
+ * Writes tuples to and reads tuples from byte buffers in a compact binary
+ * format defined by a schema of {@link FieldType field types}.
+ * <p>
+ * A tuple is written as a bit set of its null fields, one bit per field
+ * rounded up to whole bytes, followed by each non-null field in the format of
+ * its field type. Integers are written as zig-zag variable length integers and
+ * strings as their UTF-8 length followed by their UTF-8 bytes. Nothing but the
+ * fields is written, the reader must know the schema.
+ * <p>
+ * A tuple is written directly into the given buffer without intermediate
+ * buffers. If the buffer does not have room for the tuple, a
+ * <code>BufferOverflowException</code> is thrown and the position of the
+ * buffer is undefined. A codec has no state beyond its schema and can be
+ * shared by multiple threads.
+ *
+ * @author Alan Gutierrez
+ */
+public class TupleCodec
+{
+    /** The field types. */
+    private final FieldType[] types;
+
+    /** The number of bytes in the null field bit set. */
+    private final int nullBytes;
+
+    /**
+     * Create a codec for tuples with the given field types.
+     *
+     * @param types
+     *            The field types.
+     */
+    public TupleCodec(FieldType... types)
+    {
+        this.types = types.clone();
+        this.nullBytes = (types.length + 7) / 8;
+    }
+
+    /**
+     * Get the number of fields in the tuples of this codec.
+     *
+     * @return The number of fields.
+     */
+    public int getArity()
+    {
+        return types.length;
+    }
+
+    /**
+     * Get the type of the field at the given index.
+     *
+     * @param index
+     *            The field index.
+     * @return The field type.
+     */
+    public FieldType getFieldType(int index)
+    {
+        return types[index];
+    }
+
+    /**
+     * Write the leading fields of the given tuple, one for each field type of
+     * the codec, into the buffer.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param tuple
+     *            The tuple.
+     */
+    @SuppressWarnings("unchecked")
+    public void write(ByteBuffer buffer, Tuple<?, ?> tuple)
+    {
+        int nulls = buffer.position();
+        for (int i = 0; i < nullBytes; i++)
+        {
+            buffer.put((byte) 0);
+        }
+        Variable<Object> variable = new Variable<Object>();
+        Object rest = tuple;
+        for (int i = 0; i < types.length; i++)
+        {
+            rest = ((Tuple) rest).extract(variable);
+            Object value = variable.get();
+            if (value == null)
+            {
+                buffer.put(nulls + i / 8, (byte) (buffer.get(nulls + i / 8) | (1 << (i % 8))));
+            }
+            else
+            {
+                types[i].write(buffer, value);
+            }
+        }
+    }
+
+    /**
+     * Read the fields of a tuple from the buffer.
+     *
+     * @param buffer
+     *            The buffer.
+     * @return The fields of the tuple.
+     */
+    Object[] fields(ByteBuffer buffer)
+    {
+        int nulls = buffer.position();
+        buffer.position(nulls + nullBytes);
+        Object[] fields = new Object[types.length];
+        for (int i = 0; i < types.length; i++)
+        {
+            if ((buffer.get(nulls + i / 8) & (1 << (i % 8))) == 0)
+            {
+                fields[i] = types[i].read(buffer);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Read a named tuple from the buffer, from <code>Single</code> to
+     * <code>Decuple</code> according to the number of fields in the codec. The
+     * named tuple type is inferred from the assignment and is not checked.
+     *
+     * @param buffer
+     *            The buffer.
+     * @return The named tuple.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Tuple<?, ?>> T read(ByteBuffer buffer)
+    {
+        return (T) Fields.tuple(fields(buffer));
+    }
+
+    /**
+     * Read a flat tuple from the buffer.
+     *
+     * @param buffer
+     *            The buffer.
+     * @return The flat tuple.
+     */
+    public FlatTuple readFlat(ByteBuffer buffer)
+    {
+        return new FlatTuple(fields(buffer));
+    }
+}
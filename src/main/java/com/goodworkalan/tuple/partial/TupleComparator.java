@@ -0,0 +1,51 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.Comparator;
+
+import com.mallardsoft.tuple.End;
+import com.mallardsoft.tuple.Tuple;
+import com.mallardsoft.tuple.Variable;
+
+/**
+ * A comparator that orders full tuples field by field using the same field
+ * comparison as {@link Shared}, a null field is less than any non-null field.
+ * A list of full tuples sorted with this comparator can be searched with the
+ * comparables created by a {@link Partial}, even when fields are null.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class TupleComparator<T extends Tuple<?, ?>> implements Comparator<T>
+{
+    /**
+     * Compare two full tuples field by field.
+     * 
+     * @param left
+     *            The left tuple.
+     * @param right
+     *            The right tuple.
+     * @return A negative integer, zero, or a positive integer as the left
+     *         tuple is less than, equal to, or greater than the right tuple.
+     */
+    @SuppressWarnings("unchecked")
+    public int compare(T left, T right)
+    {
+        Variable<Object> leftField = new Variable<Object>();
+        Variable<Object> rightField = new Variable<Object>();
+        Object leftRest = left;
+        Object rightRest = right;
+        while (!(leftRest instanceof End) && !(rightRest instanceof End))
+        {
+            leftRest = ((Tuple) leftRest).extract(leftField);
+            rightRest = ((Tuple) rightRest).extract(rightField);
+            int compare = Fields.compare(leftField.get(), rightField.get());
+            if (compare != 0)
+            {
+                return compare;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,467 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A range of full tuples bounded by partial tuples, each bound inclusive or
+ * exclusive, or unbounded.
+ * <p>
+ * An inclusive lower bound includes every full tuple that begins with the
+ * fields of its partial tuple, an exclusive lower bound excludes them. The
+ * same holds for upper bounds. The lower and upper bounds can have different
+ * numbers of fields. A range of a single partial tuple includes exactly the
+ * full tuples that the comparable created by {@link Partial#compare(Tuple)
+ * Partial.compare} for that partial tuple compares as equal.
+ * <p>
+ * Each bound is a position between full tuples, just before or just after
+ * all the full tuples that begin with the fields of the bound. A bound is
+ * resolved against a sorted list of full tuples with a binary search using a
+ * comparable that never returns zero, the same comparable built with
+ * {@link Compare#forZero(Comparable, int) Compare.forZero}. Because bounds
+ * are positions, ranges can be intersected and merged without a list of full
+ * tuples.
+ * <p>
+ * A range is immutable.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <FullTuple>
+ *            The full tuple type.
+ */
+public final class TupleRange<FullTuple extends Tuple<?, ?>>
+{
+    /** The side of a bound that is before the tuples with its prefix. */
+    private final static int BEFORE = -1;
+
+    /** The side of a bound that is after the tuples with its prefix. */
+    private final static int AFTER = 1;
+
+    /** The lower bound or null if the range is unbounded below. */
+    private final Bound lower;
+
+    /** The upper bound or null if the range is unbounded above. */
+    private final Bound upper;
+
+    /**
+     * Create a range with the given bounds.
+     *
+     * @param lower
+     *            The lower bound or null if unbounded below.
+     * @param upper
+     *            The upper bound or null if unbounded above.
+     */
+    private TupleRange(Bound lower, Bound upper)
+    {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * Create a range of every full tuple.
+     *
+     * @return A range of every full tuple.
+     */
+    public static <FullTuple extends Tuple<?, ?>> TupleRange<FullTuple> all()
+    {
+        return new TupleRange<FullTuple>(null, null);
+    }
+
+    /**
+     * Create a range of the full tuples that begin with the fields of the
+     * given partial tuple.
+     *
+     * @param partial
+     *            The partial comparator builder.
+     * @param probe
+     *            The partial tuple.
+     * @return A range of the full tuples that match the partial tuple.
+     */
+    public static <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+    TupleRange<FullTuple> prefix(Partial<FullTuple, PartialTuple> partial, PartialTuple probe)
+    {
+        Object[] fields = Fields.extract(probe, partial.getSharedCount());
+        return new TupleRange<FullTuple>(new Bound(fields, BEFORE), new Bound(fields, AFTER));
+    }
+
+    /**
+     * Create a range of the full tuples after the given partial tuple,
+     * unbounded above.
+     *
+     * @param partial
+     *            The partial comparator builder of the bound.
+     * @param probe
+     *            The partial tuple of the bound.
+     * @param inclusive
+     *            True to include the full tuples that begin with the fields of
+     *            the partial tuple.
+     * @return A range unbounded above.
+     */
+    public static <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+    TupleRange<FullTuple> from(Partial<FullTuple, PartialTuple> partial, PartialTuple probe, boolean inclusive)
+    {
+        return new TupleRange<FullTuple>(new Bound(Fields.extract(probe, partial.getSharedCount()), inclusive ? BEFORE : AFTER), null);
+    }
+
+    /**
+     * Create a range of the full tuples before the given partial tuple,
+     * unbounded below.
+     *
+     * @param partial
+     *            The partial comparator builder of the bound.
+     * @param probe
+     *            The partial tuple of the bound.
+     * @param inclusive
+     *            True to include the full tuples that begin with the fields of
+     *            the partial tuple.
+     * @return A range unbounded below.
+     */
+    public static <FullTuple extends Tuple<?, ?>, PartialTuple extends Tuple<?, ?>>
+    TupleRange<FullTuple> to(Partial<FullTuple, PartialTuple> partial, PartialTuple probe, boolean inclusive)
+    {
+        return new TupleRange<FullTuple>(null, new Bound(Fields.extract(probe, partial.getSharedCount()), inclusive ? AFTER : BEFORE));
+    }
+
+    /**
+     * Create a range of the full tuples between the given partial tuples.
+     *
+     * @param lowerPartial
+     *            The partial comparator builder of the lower bound.
+     * @param lower
+     *            The partial tuple of the lower bound.
+     * @param lowerInclusive
+     *            True to include the full tuples that begin with the fields of
+     *            the lower partial tuple.
+     * @param upperPartial
+     *            The partial comparator builder of the upper bound.
+     * @param upper
+     *            The partial tuple of the upper bound.
+     * @param upperInclusive
+     *            True to include the full tuples that begin with the fields of
+     *            the upper partial tuple.
+     * @return A range between the partial tuples.
+     */
+    public static <FullTuple extends Tuple<?, ?>, LowerTuple extends Tuple<?, ?>, UpperTuple extends Tuple<?, ?>>
+    TupleRange<FullTuple> between(Partial<FullTuple, LowerTuple> lowerPartial, LowerTuple lower, boolean lowerInclusive,
+                                  Partial<FullTuple, UpperTuple> upperPartial, UpperTuple upper, boolean upperInclusive)
+    {
+        return TupleRange.<FullTuple, LowerTuple>from(lowerPartial, lower, lowerInclusive).intersect(TupleRange.<FullTuple, UpperTuple>to(upperPartial, upper, upperInclusive));
+    }
+
+    /**
+     * Return true if the range can contain no full tuples.
+     *
+     * @return True if the range is empty.
+     */
+    public boolean isEmpty()
+    {
+        return lower != null && upper != null && lower.compareTo(upper) >= 0;
+    }
+
+    /**
+     * Return true if the given full tuple is in the range.
+     *
+     * @param tuple
+     *            The full tuple.
+     * @return True if the full tuple is in the range.
+     */
+    public boolean contains(FullTuple tuple)
+    {
+        return (lower == null || lower.compareTo(tuple) < 0) && (upper == null || upper.compareTo(tuple) > 0);
+    }
+
+    /**
+     * Create the range of full tuples that are in both this range and the
+     * given range.
+     *
+     * @param other
+     *            The other range.
+     * @return The intersection of the ranges, which may be empty.
+     */
+    public TupleRange<FullTuple> intersect(TupleRange<FullTuple> other)
+    {
+        return new TupleRange<FullTuple>(max(lower, other.lower, false), min(upper, other.upper, false));
+    }
+
+    /**
+     * Merge the given ranges into the fewest ranges that contain the same full
+     * tuples, in ascending order. Overlapping and adjacent ranges are merged
+     * and empty ranges are removed.
+     *
+     * @param ranges
+     *            The ranges.
+     * @return The merged ranges in ascending order.
+     */
+    public static <FullTuple extends Tuple<?, ?>> List<TupleRange<FullTuple>> union(Collection<TupleRange<FullTuple>> ranges)
+    {
+        List<TupleRange<FullTuple>> sorted = new ArrayList<TupleRange<FullTuple>>();
+        for (TupleRange<FullTuple> range : ranges)
+        {
+            if (!range.isEmpty())
+            {
+                sorted.add(range);
+            }
+        }
+        Collections.sort(sorted, new Comparator<TupleRange<FullTuple>>()
+        {
+            public int compare(TupleRange<FullTuple> left, TupleRange<FullTuple> right)
+            {
+                if (left.lower == null || right.lower == null)
+                {
+                    return (left.lower == null ? 0 : 1) - (right.lower == null ? 0 : 1);
+                }
+                return left.lower.compareTo(right.lower);
+            }
+        });
+        List<TupleRange<FullTuple>> merged = new ArrayList<TupleRange<FullTuple>>();
+        TupleRange<FullTuple> current = null;
+        for (TupleRange<FullTuple> range : sorted)
+        {
+            if (current != null && (current.upper == null || range.lower == null || range.lower.compareTo(current.upper) <= 0))
+            {
+                current = new TupleRange<FullTuple>(current.lower, max(current.upper, range.upper, true));
+            }
+            else
+            {
+                if (current != null)
+                {
+                    merged.add(current);
+                }
+                current = range;
+            }
+        }
+        if (current != null)
+        {
+            merged.add(current);
+        }
+        return merged;
+    }
+
+    /**
+     * Find the run of full tuples in the given sorted list that are in the
+     * range with a binary search for each bound.
+     *
+     * @param sorted
+     *            The sorted list of full tuples.
+     * @return The run of full tuples in the range.
+     */
+    public Run resolve(List<FullTuple> sorted)
+    {
+        int size = sorted.size();
+        int start = lower == null ? 0 : Search.bound(sorted, lower, 0, size, 0);
+        int end = upper == null ? size : Search.bound(sorted, upper, start, size, 0);
+        return new Run(start, Math.max(start, end));
+    }
+
+    /**
+     * Find the run of full tuples in the given sorted array that are in the
+     * range with a binary search for each bound.
+     *
+     * @param sorted
+     *            The sorted array of full tuples.
+     * @return The run of full tuples in the range.
+     */
+    public Run resolve(FullTuple[] sorted)
+    {
+        return resolve(Arrays.asList(sorted));
+    }
+
+    /**
+     * Get a comparable that compares as less than every full tuple in the
+     * range and greater than every full tuple before it, or null if the range
+     * is unbounded below.
+     *
+     * @return The lower bound comparable.
+     */
+    public Comparable<FullTuple> getLowerComparable()
+    {
+        return lower == null ? null : Compare.forZero(new FieldsComparable<FullTuple>(lower.fields), lower.side);
+    }
+
+    /**
+     * Get a comparable that compares as greater than every full tuple in the
+     * range and less than every full tuple after it, or null if the range is
+     * unbounded above.
+     *
+     * @return The upper bound comparable.
+     */
+    public Comparable<FullTuple> getUpperComparable()
+    {
+        return upper == null ? null : Compare.forZero(new FieldsComparable<FullTuple>(upper.fields), upper.side);
+    }
+
+    /**
+     * Return the greater of two bounds, where a null bound is unbounded below
+     * if the bounds are lower bounds, or unbounded above if they are upper
+     * bounds.
+     *
+     * @param left
+     *            The left bound.
+     * @param right
+     *            The right bound.
+     * @param upper
+     *            True if the bounds are upper bounds.
+     * @return The greater bound.
+     */
+    private static Bound max(Bound left, Bound right, boolean upper)
+    {
+        if (left == null || right == null)
+        {
+            return upper ? null : left == null ? right : left;
+        }
+        return left.compareTo(right) >= 0 ? left : right;
+    }
+
+    /**
+     * Return the lesser of two bounds, where a null bound is unbounded below
+     * if the bounds are lower bounds, or unbounded above if they are upper
+     * bounds.
+     *
+     * @param left
+     *            The left bound.
+     * @param right
+     *            The right bound.
+     * @param lower
+     *            True if the bounds are lower bounds.
+     * @return The lesser bound.
+     */
+    private static Bound min(Bound left, Bound right, boolean lower)
+    {
+        if (left == null || right == null)
+        {
+            return lower ? null : left == null ? right : left;
+        }
+        return left.compareTo(right) <= 0 ? left : right;
+    }
+
+    /**
+     * A range is equal to another range with the same bounds.
+     *
+     * @param object
+     *            The object to compare.
+     * @return True if the object is a range with the same bounds.
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof TupleRange)
+        {
+            TupleRange<?> range = (TupleRange<?>) object;
+            return (lower == null ? range.lower == null : lower.equals(range.lower))
+                && (upper == null ? range.upper == null : upper.equals(range.upper));
+        }
+        return false;
+    }
+
+    /**
+     * Generate a hash code from the bounds.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode()
+    {
+        return (lower == null ? 0 : lower.hashCode()) * 31 + (upper == null ? 0 : upper.hashCode());
+    }
+
+    /**
+     * Return the range in interval notation.
+     *
+     * @return A string representation of the range.
+     */
+    @Override
+    public String toString()
+    {
+        return (lower == null ? "(*" : (lower.side == BEFORE ? "[" : "(") + Arrays.asList(lower.fields))
+            + ", "
+            + (upper == null ? "*)" : Arrays.asList(upper.fields) + (upper.side == AFTER ? "]" : ")"));
+    }
+
+    /**
+     * A position just before or just after all the full tuples that begin
+     * with the given fields.
+     */
+    private final static class Bound implements Comparable<Object>
+    {
+        /** The leading fields. */
+        public final Object[] fields;
+
+        /** The side of the full tuples with the leading fields. */
+        public final int side;
+
+        /**
+         * Create a bound.
+         *
+         * @param fields
+         *            The leading fields.
+         * @param side
+         *            The side of the full tuples with the leading fields.
+         */
+        public Bound(Object[] fields, int side)
+        {
+            this.fields = fields;
+            this.side = side;
+        }
+
+        /**
+         * Compare this bound against another bound or against a full tuple.
+         * The bound is never equal to a full tuple.
+         *
+         * @param object
+         *            A bound or a full tuple.
+         * @return A negative integer, zero, or a positive integer as this
+         *         bound is less than, equal to, or greater than the object.
+         */
+        public int compareTo(Object object)
+        {
+            if (object instanceof Bound)
+            {
+                Bound other = (Bound) object;
+                int count = Math.min(fields.length, other.fields.length);
+                int compare = Fields.compare(fields, other.fields, count);
+                if (compare != 0)
+                {
+                    return compare;
+                }
+                if (fields.length == other.fields.length)
+                {
+                    return side - other.side;
+                }
+                return fields.length < other.fields.length ? side : -other.side;
+            }
+            int compare = Fields.compare(fields, object);
+            return compare == 0 ? side : compare;
+        }
+
+        /**
+         * A bound is equal to another bound with equal fields on the same
+         * side.
+         *
+         * @param object
+         *            The object to compare.
+         * @return True if the object is an equal bound.
+         */
+        @Override
+        public boolean equals(Object object)
+        {
+            return object instanceof Bound && compareTo(object) == 0;
+        }
+
+        /**
+         * Generate a hash code from the fields and side.
+         *
+         * @return The hash code.
+         */
+        @Override
+        public int hashCode()
+        {
+            return Fields.hash(fields, fields.length) * 31 + side;
+        }
+    }
+}
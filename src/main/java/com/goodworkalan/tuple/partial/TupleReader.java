@@ -0,0 +1,159 @@
+package com.goodworkalan.tuple.partial;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Reads a sequence of tuples written by a {@link TupleWriter} from a channel
+ * using a {@link TupleCodec}.
+ * <p>
+ * Bytes are read from the channel into a single reusable buffer and tuples are
+ * decoded directly from the buffer. The buffer grows if a single tuple does
+ * not fit in it.
+ *
+ * @author Alan Gutierrez
+ */
+public class TupleReader
+{
+    /** The codec. */
+    private final TupleCodec codec;
+
+    /** The channel. */
+    private final ReadableByteChannel channel;
+
+    /** The reusable buffer, ready for reading. */
+    private ByteBuffer buffer;
+
+    /** True if the channel has reached the end of the stream. */
+    private boolean eof;
+
+    /**
+     * Create a reader of tuples from the given channel.
+     *
+     * @param codec
+     *            The codec.
+     * @param channel
+     *            The channel.
+     * @param bufferSize
+     *            The initial size of the buffer.
+     */
+    public TupleReader(TupleCodec codec, ReadableByteChannel channel, int bufferSize)
+    {
+        this.codec = codec;
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+        this.buffer.flip();
+    }
+
+    /**
+     * Make at least the given number of bytes available in the buffer,
+     * reading from the channel if necessary.
+     *
+     * @param count
+     *            The number of bytes.
+     * @return True if the bytes are available, false if the stream ended
+     *         first.
+     * @throws IOException
+     *             If an I/O error occurs.
+     */
+    private boolean fill(int count) throws IOException
+    {
+        if (buffer.remaining() >= count)
+        {
+            return true;
+        }
+        if (buffer.capacity() < count)
+        {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(count, buffer.capacity() * 2));
+            larger.put(buffer);
+            buffer = larger;
+        }
+        else
+        {
+            buffer.compact();
+        }
+        while (!eof && buffer.position() < count)
+        {
+            if (channel.read(buffer) == -1)
+            {
+                eof = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= count;
+    }
+
+    /**
+     * Read the fields of the next tuple.
+     *
+     * @return The fields of the next tuple, or null at the end of the stream.
+     * @throws IOException
+     *             If an I/O error occurs or the stream ends within a tuple.
+     */
+    private Object[] fields() throws IOException
+    {
+        if (!fill(4))
+        {
+            if (buffer.hasRemaining())
+            {
+                throw new EOFException();
+            }
+            return null;
+        }
+        int length = buffer.getInt();
+        if (!fill(length))
+        {
+            throw new EOFException();
+        }
+        int limit = buffer.limit();
+        int end = buffer.position() + length;
+        buffer.limit(end);
+        Object[] fields = codec.fields(buffer);
+        buffer.limit(limit);
+        buffer.position(end);
+        return fields;
+    }
+
+    /**
+     * Read the next named tuple. The named tuple type is inferred from the
+     * assignment and is not checked.
+     *
+     * @return The next tuple, or null at the end of the stream.
+     * @throws IOException
+     *             If an I/O error occurs or the stream ends within a tuple.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Tuple<?, ?>> T read() throws IOException
+    {
+        Object[] fields = fields();
+        return fields == null ? null : (T) Fields.tuple(fields);
+    }
+
+    /**
+     * Read the next tuple as a flat tuple.
+     *
+     * @return The next tuple, or null at the end of the stream.
+     * @throws IOException
+     *             If an I/O error occurs or the stream ends within a tuple.
+     */
+    public FlatTuple readFlat() throws IOException
+    {
+        Object[] fields = fields();
+        return fields == null ? null : new FlatTuple(fields);
+    }
+
+    /**
+     * Close the channel.
+     *
+     * @throws IOException
+     *             If an I/O error occurs.
+     */
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
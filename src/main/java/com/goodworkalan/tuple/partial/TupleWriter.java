@@ -0,0 +1,116 @@
+package com.goodworkalan.tuple.partial;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * Writes a sequence of tuples to a channel using a {@link TupleCodec}. Each
+ * tuple is written as a four byte length followed by the encoded tuple, so
+ * that a {@link TupleReader} can tell where one tuple ends and the next
+ * begins.
+ * <p>
+ * Tuples are encoded into a single reusable buffer that is written to the
+ * channel when it is full. The buffer grows if a single tuple does not fit in
+ * an empty buffer. The writer must be flushed or closed to write the last
+ * tuples to the channel.
+ *
+ * @author Alan Gutierrez
+ */
+public class TupleWriter
+{
+    /** The codec. */
+    private final TupleCodec codec;
+
+    /** The channel. */
+    private final WritableByteChannel channel;
+
+    /** The reusable buffer. */
+    private ByteBuffer buffer;
+
+    /**
+     * Create a writer of tuples to the given channel.
+     *
+     * @param codec
+     *            The codec.
+     * @param channel
+     *            The channel.
+     * @param bufferSize
+     *            The initial size of the buffer.
+     */
+    public TupleWriter(TupleCodec codec, WritableByteChannel channel, int bufferSize)
+    {
+        this.codec = codec;
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+    }
+
+    /**
+     * Write a tuple.
+     *
+     * @param tuple
+     *            The tuple.
+     * @throws IOException
+     *             If an I/O error occurs.
+     */
+    public void write(Tuple<?, ?> tuple) throws IOException
+    {
+        for (;;)
+        {
+            int start = buffer.position();
+            if (buffer.remaining() > 4)
+            {
+                try
+                {
+                    buffer.position(start + 4);
+                    codec.write(buffer, tuple);
+                    buffer.putInt(start, buffer.position() - start - 4);
+                    return;
+                }
+                catch (BufferOverflowException e)
+                {
+                    buffer.position(start);
+                }
+            }
+            if (start == 0)
+            {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+            else
+            {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Write the buffered tuples to the channel.
+     *
+     * @throws IOException
+     *             If an I/O error occurs.
+     */
+    public void flush() throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write the buffered tuples to the channel and close the channel.
+     *
+     * @throws IOException
+     *             If an I/O error occurs.
+     */
+    public void close() throws IOException
+    {
+        flush();
+        channel.close();
+    }
+}
@@ -0,0 +1,85 @@
+package com.goodworkalan.tuple.partial;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Static methods to read and write variable length integers, seven bits to a
+ * byte with the high bit set on every byte but the last. Signed integers are
+ * zig-zag encoded so that small negative numbers are as short as small
+ * positive numbers.
+ *
+ * @author Alan Gutierrez
+ */
+final class Varint
+{
+    /** Cannot be instantiated. */
+    private Varint()
+    {
+    }
+
+    /**
+     * Write an unsigned variable length long.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param value
+     *            The value, treated as unsigned.
+     */
+    public static void writeUnsigned(ByteBuffer buffer, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read an unsigned variable length long.
+     *
+     * @param buffer
+     *            The buffer.
+     * @return The value.
+     */
+    public static long readUnsigned(ByteBuffer buffer)
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Write a zig-zag encoded signed variable length long.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param value
+     *            The value.
+     */
+    public static void writeSigned(ByteBuffer buffer, long value)
+    {
+        writeUnsigned(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Read a zig-zag encoded signed variable length long.
+     *
+     * @param buffer
+     *            The buffer.
+     * @return The value.
+     */
+    public static long readSigned(ByteBuffer buffer)
+    {
+        long value = readUnsigned(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
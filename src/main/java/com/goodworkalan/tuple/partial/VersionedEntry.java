@@ -0,0 +1,148 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A full tuple in a {@link VersionedIndex} with the version that created it
+ * and the version that deleted it. The tuple is visible to a snapshot of a
+ * version if it was created at or before the version and deleted after it.
+ * <p>
+ * The deleted version is the only mutable state. It is written once, by the
+ * writer that deletes the tuple, before the deleting version is published, so
+ * that a snapshot of an earlier version sees either no deletion or a deletion
+ * after its version.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+final class VersionedEntry<T>
+{
+    /** The version of an entry that has not been deleted. */
+    public final static long LIVE = Long.MAX_VALUE;
+
+    /** The full tuple. */
+    public final T tuple;
+
+    /** The version that created the entry. */
+    public final long created;
+
+    /** The version that deleted the entry or {@link #LIVE}. */
+    public volatile long deleted = LIVE;
+
+    /**
+     * Create an entry.
+     *
+     * @param tuple
+     *            The full tuple.
+     * @param created
+     *            The version that created the entry.
+     */
+    public VersionedEntry(T tuple, long created)
+    {
+        this.tuple = tuple;
+        this.created = created;
+    }
+
+    /**
+     * Return true if the entry is visible to a snapshot of the given version.
+     *
+     * @param version
+     *            The snapshot version.
+     * @return True if the entry is visible.
+     */
+    public boolean isVisible(long version)
+    {
+        return created <= version && version < deleted;
+    }
+
+    /**
+     * Create a comparator that orders entries by their tuples in the order of
+     * a {@link TupleComparator} and then by the version that created them.
+     *
+     * @return An entry comparator.
+     */
+    public static <T extends Tuple<?, ?>> Comparator<VersionedEntry<T>> comparator()
+    {
+        final TupleComparator<T> comparator = new TupleComparator<T>();
+        return new Comparator<VersionedEntry<T>>()
+        {
+            public int compare(VersionedEntry<T> left, VersionedEntry<T> right)
+            {
+                int compare = comparator.compare(left.tuple, right.tuple);
+                if (compare == 0 && left.created != right.created)
+                {
+                    return left.created < right.created ? -1 : 1;
+                }
+                return compare;
+            }
+        };
+    }
+
+    /**
+     * Create a view of the tuples of the given list of entries, so that the
+     * entries can be searched with the comparables created by a
+     * {@link Partial} and resolved by a {@link TupleRange}.
+     *
+     * @param entries
+     *            The sorted entries.
+     * @return A list of the tuples of the entries.
+     */
+    public static <T> List<T> tuples(List<VersionedEntry<T>> entries)
+    {
+        return new Tuples<T>(entries);
+    }
+
+    /**
+     * A random access view of the tuples of a list of entries.
+     *
+     * @param <T>
+     *            The full tuple type.
+     */
+    private final static class Tuples<T> extends AbstractList<T> implements RandomAccess
+    {
+        /** The entries. */
+        private final List<VersionedEntry<T>> entries;
+
+        /**
+         * Create a view of the tuples of the given entries.
+         *
+         * @param entries
+         *            The entries.
+         */
+        public Tuples(List<VersionedEntry<T>> entries)
+        {
+            this.entries = entries;
+        }
+
+        /**
+         * Get the tuple of the entry at the given index.
+         *
+         * @param index
+         *            The index.
+         * @return The tuple.
+         */
+        @Override
+        public T get(int index)
+        {
+            return entries.get(index).tuple;
+        }
+
+        /**
+         * Get the number of entries.
+         *
+         * @return The number of entries.
+         */
+        @Override
+        public int size()
+        {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,740 @@
+package com.goodworkalan.tuple.partial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * An index of full tuples in which every change creates a new version and
+ * readers search a {@link IndexSnapshot snapshot} of a single version, so
+ * that a long scan sees neither the changes made after it began nor a change
+ * half made.
+ * <p>
+ * Each tuple is kept as an entry with the version that added it and the
+ * version that removed it. Entries are kept in immutable sorted runs and a
+ * small sorted buffer, in the manner of a {@link SortedRunIndex}. An addition
+ * is written into the buffer at its insertion point, which costs a
+ * logarithmic number of comparisons and a single array copy, and a removal
+ * marks the entry in place. Writers are serialized with one another. A
+ * snapshot holds a copy of the buffer and the list of runs that were current
+ * when it was opened and filters entries by its version. The copy of the
+ * buffer is taken by the first snapshot opened after an addition and shared
+ * by the snapshots opened until the next addition. A change is published by
+ * incrementing the version after its entries are written, so that a snapshot
+ * never sees part of a change.
+ * <p>
+ * An entry can be discarded once its removal is older than every open
+ * snapshot. Removed entries are discarded from the buffer each time it fills,
+ * and from runs when runs of similar size are merged, as in a
+ * {@link SortedRunIndex}. The index also counts the removed entries of each
+ * run, and a run in which at least half of the entries have been removed by
+ * versions that no open snapshot can see is rewritten alone without them. A
+ * removal seen by an open snapshot is counted as pinned, with its version,
+ * until every snapshot that can see it is closed. The count is checked after
+ * each write and when the oldest open snapshot is closed, so that the
+ * removed entries of a delete heavy workload are discarded without rewriting
+ * the whole index. A snapshot must be closed when it is no longer used, or
+ * the entries that it can see are kept.
+ * <p>
+ * The index is a multiset, a tuple added twice must be removed twice.
+ *
+ * @author Alan Gutierrez
+ *
+ * @param <T>
+ *            The full tuple type.
+ */
+public class VersionedIndex<T extends Tuple<?, ?>>
+{
+    /** The entry order. */
+    private final Comparator<VersionedEntry<T>> comparator = VersionedEntry.comparator();
+
+    /** The executor that merges runs or null to merge when writing. */
+    private final Executor executor;
+
+    /** The number of entries in a full buffer. */
+    private final int bufferSize;
+
+    /** The number of runs of similar size that are merged together. */
+    private final int mergeFactor;
+
+    /** The sorted buffer, guarded by this index. */
+    private final List<VersionedEntry<T>> buffer;
+
+    /** The immutable list of immutable runs, replaced on each change. */
+    private volatile List<List<VersionedEntry<T>>> runs;
+
+    /**
+     * A copy of the buffer followed by the runs, or null if it must be taken
+     * again because the index changed.
+     */
+    private volatile List<List<VersionedEntry<T>>> view;
+
+    /** The removal counts of the runs that have removed entries, by identity. */
+    private final Map<List<VersionedEntry<T>>, Removals> removalCounts = new IdentityHashMap<List<VersionedEntry<T>>, Removals>();
+
+    /** The last published version. */
+    private volatile long version;
+
+    /** The number of open snapshots of each version. */
+    private final SortedMap<Long, Integer> snapshots = new TreeMap<Long, Integer>();
+
+    /** Whether runs are being merged. */
+    private final AtomicBoolean merging = new AtomicBoolean();
+
+    /**
+     * Create an empty index at version zero.
+     *
+     * @param executor
+     *            The executor that merges runs or null to merge when writing.
+     * @param bufferSize
+     *            The number of entries in a full buffer.
+     * @param mergeFactor
+     *            The number of runs of similar size that are merged together,
+     *            at least two.
+     */
+    public VersionedIndex(Executor executor, int bufferSize, int mergeFactor)
+    {
+        if (bufferSize < 1 || mergeFactor < 2)
+        {
+            throw new IllegalArgumentException();
+        }
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.mergeFactor = mergeFactor;
+        this.buffer = new ArrayList<VersionedEntry<T>>(bufferSize);
+        this.runs = Collections.emptyList();
+    }
+
+    /**
+     * Get the last published version.
+     *
+     * @return The current version.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Add a tuple as a new version.
+     *
+     * @param tuple
+     *            The tuple.
+     * @return The new version.
+     */
+    public long add(T tuple)
+    {
+        return apply(Collections.singletonList(tuple), Collections.<T>emptyList());
+    }
+
+    /**
+     * Remove a tuple as a new version.
+     *
+     * @param tuple
+     *            The tuple.
+     * @return True if the tuple was found and removed.
+     */
+    public boolean remove(T tuple)
+    {
+        boolean removed;
+        boolean merge;
+        synchronized (this)
+        {
+            long next = version + 1;
+            removed = delete(tuple, next);
+            if (removed)
+            {
+                version = next;
+            }
+            merge = removed && isMaintenanceNeeded();
+        }
+        if (merge)
+        {
+            merge();
+        }
+        return removed;
+    }
+
+    /**
+     * Remove and add the given tuples as a single new version. The removals
+     * are made before the additions. Tuples to remove that are not found are
+     * ignored.
+     *
+     * @param additions
+     *            The tuples to add.
+     * @param removals
+     *            The tuples to remove.
+     * @return The new version.
+     */
+    public long apply(Collection<? extends T> additions, Collection<? extends T> removals)
+    {
+        boolean merge;
+        long next;
+        synchronized (this)
+        {
+            next = version + 1;
+            for (T tuple : removals)
+            {
+                delete(tuple, next);
+            }
+            for (T tuple : additions)
+            {
+                VersionedEntry<T> entry = new VersionedEntry<T>(tuple, next);
+                int low = 0;
+                int high = buffer.size();
+                while (low < high)
+                {
+                    int middle = (low + high) >>> 1;
+                    if (comparator.compare(buffer.get(middle), entry) <= 0)
+                    {
+                        low = middle + 1;
+                    }
+                    else
+                    {
+                        high = middle;
+                    }
+                }
+                buffer.add(low, entry);
+                view = null;
+            }
+            if (buffer.size() >= bufferSize)
+            {
+                rotate();
+            }
+            version = next;
+            merge = isMaintenanceNeeded();
+        }
+        if (merge)
+        {
+            merge();
+        }
+        return next;
+    }
+
+    /**
+     * Discard the entries of the full buffer that were removed before the
+     * oldest open snapshot and make the buffer an immutable run if at least
+     * half of it is left, so that a buffer of mostly removed entries is
+     * reused. Called while holding the lock of the index.
+     */
+    private void rotate()
+    {
+        long oldest = oldest();
+        long[] pinned = new long[buffer.size()];
+        int removed = 0;
+        int kept = 0;
+        for (VersionedEntry<T> entry : buffer)
+        {
+            if (entry.deleted > oldest)
+            {
+                buffer.set(kept++, entry);
+                if (entry.deleted != VersionedEntry.LIVE)
+                {
+                    pinned[removed++] = entry.deleted;
+                }
+            }
+        }
+        buffer.subList(kept, buffer.size()).clear();
+        if (kept * 2 >= bufferSize)
+        {
+            List<VersionedEntry<T>> run = Collections.unmodifiableList(new ArrayList<VersionedEntry<T>>(buffer));
+            List<List<VersionedEntry<T>>> next = new ArrayList<List<VersionedEntry<T>>>(runs);
+            next.add(run);
+            runs = Collections.unmodifiableList(next);
+            if (removed != 0)
+            {
+                long[] versions = new long[removed];
+                System.arraycopy(pinned, 0, versions, 0, removed);
+                Arrays.sort(versions);
+                removalCounts.put(run, new Removals(removed, versions));
+            }
+            buffer.clear();
+        }
+        view = null;
+    }
+
+    /**
+     * Mark the first live entry of the given tuple as removed by the given
+     * version and count the removal against its run, if it is not in the
+     * buffer. Called while holding the lock of the index.
+     *
+     * @param tuple
+     *            The tuple.
+     * @param next
+     *            The removing version.
+     * @return True if a live entry was found.
+     */
+    private boolean delete(final T tuple, long next)
+    {
+        final TupleComparator<T> tuples = new TupleComparator<T>();
+        Comparable<T> comparable = new Comparable<T>()
+        {
+            public int compareTo(T other)
+            {
+                return tuples.compare(tuple, other);
+            }
+        };
+        List<List<VersionedEntry<T>>> runs = new ArrayList<List<VersionedEntry<T>>>(this.runs.size() + 1);
+        runs.add(buffer);
+        runs.addAll(this.runs);
+        for (List<VersionedEntry<T>> run : runs)
+        {
+            Run found = Search.run(VersionedEntry.tuples(run), comparable);
+            for (int i = found.getStart(); i < found.getEnd(); i++)
+            {
+                VersionedEntry<T> entry = run.get(i);
+                if (entry.deleted == VersionedEntry.LIVE)
+                {
+                    entry.deleted = next;
+                    if (run != buffer)
+                    {
+                        Removals counted = removalCounts.get(run);
+                        if (counted == null)
+                        {
+                            removalCounts.put(run, counted = new Removals(0, new long[0]));
+                        }
+                        counted.removed++;
+                        synchronized (snapshots)
+                        {
+                            if (!snapshots.isEmpty())
+                            {
+                                counted.pin(next);
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Open a snapshot of the current version. The snapshot must be closed.
+     *
+     * @return A snapshot of the current version.
+     */
+    public IndexSnapshot<T> snapshot()
+    {
+        long version;
+        synchronized (snapshots)
+        {
+            version = this.version;
+            Integer count = snapshots.get(version);
+            snapshots.put(version, count == null ? 1 : count + 1);
+        }
+        return new IndexSnapshot<T>(this, version, view(), comparator);
+    }
+
+    /**
+     * Release a snapshot of the given version. If it was the last snapshot of
+     * the oldest open version, the entries removed at or before the next
+     * oldest version can now be discarded, so they are no longer counted as
+     * pinned and every run is checked again. Entries removed after the next
+     * oldest version remain pinned by the snapshots that can still see them.
+     *
+     * @param version
+     *            The snapshot version.
+     */
+    void release(long version)
+    {
+        boolean advanced;
+        synchronized (snapshots)
+        {
+            advanced = snapshots.firstKey() == version;
+            int count = snapshots.get(version) - 1;
+            if (count == 0)
+            {
+                snapshots.remove(version);
+            }
+            else
+            {
+                snapshots.put(version, count);
+                advanced = false;
+            }
+        }
+        if (advanced)
+        {
+            boolean merge;
+            synchronized (this)
+            {
+                long oldest = oldest();
+                for (Removals counted : removalCounts.values())
+                {
+                    counted.release(oldest);
+                }
+                merge = isMaintenanceNeeded();
+            }
+            if (merge)
+            {
+                merge();
+            }
+        }
+    }
+
+    /**
+     * Get the oldest version that an open snapshot can see, the version of
+     * the oldest open snapshot or the current version if there are none.
+     * Entries removed at or before this version can be discarded.
+     *
+     * @return The oldest visible version.
+     */
+    private long oldest()
+    {
+        synchronized (snapshots)
+        {
+            return snapshots.isEmpty() ? version : snapshots.firstKey();
+        }
+    }
+
+    /**
+     * Get the number of open snapshots.
+     *
+     * @return The number of open snapshots.
+     */
+    public int getSnapshotCount()
+    {
+        int count = 0;
+        synchronized (snapshots)
+        {
+            for (int snapshot : snapshots.values())
+            {
+                count += snapshot;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get a consistent view of a copy of the buffer followed by the runs,
+     * copying the buffer only if the index has changed since the last view.
+     * Removals do not change the view, since they mark the entries that the
+     * copy shares with the buffer.
+     *
+     * @return A list of sorted lists of entries.
+     */
+    private List<List<VersionedEntry<T>>> view()
+    {
+        List<List<VersionedEntry<T>>> view = this.view;
+        if (view == null)
+        {
+            synchronized (this)
+            {
+                view = this.view;
+                if (view == null)
+                {
+                    List<List<VersionedEntry<T>>> runs = this.runs;
+                    view = new ArrayList<List<VersionedEntry<T>>>(runs.size() + 1);
+                    view.add(Collections.unmodifiableList(new ArrayList<VersionedEntry<T>>(buffer)));
+                    view.addAll(runs);
+                    this.view = view = Collections.unmodifiableList(view);
+                }
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Get the number of immutable runs, not counting the buffer.
+     *
+     * @return The number of runs.
+     */
+    public int getRunCount()
+    {
+        return runs.size();
+    }
+
+    /**
+     * Get the number of entries kept by the index, including removed entries
+     * that have not yet been discarded.
+     *
+     * @return The number of entries.
+     */
+    public int getEntryCount()
+    {
+        int count = 0;
+        for (List<VersionedEntry<T>> run : view())
+        {
+            count += run.size();
+        }
+        return count;
+    }
+
+    /**
+     * Return true if a tier of runs of similar size has a merge factor of runs
+     * or if at least half of the entries of a run have been removed since it
+     * was written.
+     *
+     * @return True if runs should be merged or rewritten.
+     */
+    private synchronized boolean isMaintenanceNeeded()
+    {
+        return !TieredMerge.select(runs, bufferSize, mergeFactor).isEmpty() || purgeable() != null;
+    }
+
+    /**
+     * Find an immutable run in which at least half of the entries have been
+     * removed and can be discarded because no open snapshot can see them.
+     *
+     * @return A run to rewrite or null if there is none.
+     */
+    private synchronized List<VersionedEntry<T>> purgeable()
+    {
+        List<List<VersionedEntry<T>>> runs = this.runs;
+        for (int i = 0, stop = runs.size(); i < stop; i++)
+        {
+            Removals counted = removalCounts.get(runs.get(i));
+            if (counted != null && counted.getReclaimable() > 0 && counted.getReclaimable() * 2 >= runs.get(i).size())
+            {
+                return runs.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Merge the full tiers of runs and rewrite the runs that are mostly
+     * removed entries with the executor, or in this thread if there is no
+     * executor.
+     */
+    private void merge()
+    {
+        if (executor == null)
+        {
+            maintain();
+        }
+        else
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    maintain();
+                }
+            });
+        }
+    }
+
+    /**
+     * Merge the runs of each tier that has a merge factor of runs until no
+     * tier is full, then rewrite each run that is mostly removed entries,
+     * unless another thread is merging runs, in which case that thread will
+     * find them.
+     */
+    private void maintain()
+    {
+        do
+        {
+            if (!merging.compareAndSet(false, true))
+            {
+                return;
+            }
+            try
+            {
+                List<List<VersionedEntry<T>>> merged;
+                while (!(merged = TieredMerge.select(runs, bufferSize, mergeFactor)).isEmpty())
+                {
+                    rewrite(merged);
+                }
+                List<VersionedEntry<T>> run;
+                while ((run = purgeable()) != null)
+                {
+                    rewrite(Collections.singletonList(run));
+                }
+            }
+            finally
+            {
+                merging.set(false);
+            }
+        }
+        while (isMaintenanceNeeded());
+    }
+
+    /**
+     * Merge all of the immutable runs into a single run, discarding entries
+     * removed before the oldest open snapshot, rewriting the whole index.
+     * Writes do not call this method, they merge only runs of similar size,
+     * but it can be called to make reads search a single run. Returns false
+     * without merging if another thread is merging runs.
+     *
+     * @return True if the runs were merged.
+     */
+    public boolean compact()
+    {
+        if (!merging.compareAndSet(false, true))
+        {
+            return false;
+        }
+        try
+        {
+            List<List<VersionedEntry<T>>> runs = this.runs;
+            if (!runs.isEmpty())
+            {
+                rewrite(runs);
+            }
+            return true;
+        }
+        finally
+        {
+            merging.set(false);
+        }
+    }
+
+    /**
+     * Merge the given immutable runs into a single run, discarding entries
+     * removed before the oldest open snapshot, and replace them with the
+     * merged run. Called while merging.
+     *
+     * @param merged
+     *            The runs to merge.
+     */
+    private void rewrite(List<List<VersionedEntry<T>>> merged)
+    {
+        long oldest = oldest();
+        List<Iterator<VersionedEntry<T>>> iterators = new ArrayList<Iterator<VersionedEntry<T>>>(merged.size());
+        for (List<VersionedEntry<T>> run : merged)
+        {
+            iterators.add(run.iterator());
+        }
+        List<VersionedEntry<T>> run = new ArrayList<VersionedEntry<T>>();
+        List<Long> versions = new ArrayList<Long>();
+        int dropped = 0;
+        Iterator<VersionedEntry<T>> entries = new MergeIterator<VersionedEntry<T>>(iterators, comparator);
+        while (entries.hasNext())
+        {
+            VersionedEntry<T> entry = entries.next();
+            if (entry.deleted > oldest)
+            {
+                run.add(entry);
+                if (entry.deleted != VersionedEntry.LIVE)
+                {
+                    versions.add(entry.deleted);
+                }
+            }
+            else
+            {
+                dropped++;
+            }
+        }
+        List<VersionedEntry<T>> published = Collections.unmodifiableList(run);
+        long[] pinned = new long[versions.size()];
+        for (int i = 0; i < pinned.length; i++)
+        {
+            pinned[i] = versions.get(i);
+        }
+        Arrays.sort(pinned);
+        synchronized (this)
+        {
+            int removed = -dropped;
+            for (List<VersionedEntry<T>> replaced : merged)
+            {
+                Removals counted = removalCounts.remove(replaced);
+                removed += counted == null ? 0 : counted.removed;
+            }
+            runs = TieredMerge.replace(runs, merged, published);
+            view = null;
+            if (!run.isEmpty() && removed != 0)
+            {
+                Removals counted = new Removals(removed, pinned);
+                counted.release(oldest());
+                removalCounts.put(published, counted);
+            }
+        }
+    }
+
+    /**
+     * The number of removed entries in a run and the versions that removed
+     * the entries that an open snapshot could still see.
+     */
+    private final static class Removals
+    {
+        /** The number of entries of the run that have been removed. */
+        public int removed;
+
+        /**
+         * The ascending versions that removed the entries that an open
+         * snapshot could see when the removal was counted.
+         */
+        private long[] pinned;
+
+        /** The number of pinned versions. */
+        private int count;
+
+        /**
+         * The number of leading pinned versions that are no longer seen by an
+         * open snapshot.
+         */
+        private int released;
+
+        /**
+         * Create removal counts.
+         *
+         * @param removed
+         *            The number of removed entries.
+         * @param pinned
+         *            The ascending versions that removed the entries that
+         *            could not be discarded.
+         */
+        public Removals(int removed, long[] pinned)
+        {
+            this.removed = removed;
+            this.pinned = pinned;
+            this.count = pinned.length;
+        }
+
+        /**
+         * Pin the removal of an entry by the given version, which is greater
+         * than every pinned version.
+         *
+         * @param version
+         *            The removing version.
+         */
+        public void pin(long version)
+        {
+            if (count == pinned.length)
+            {
+                long[] grown = new long[Math.max(4, count * 2)];
+                System.arraycopy(pinned, 0, grown, 0, count);
+                pinned = grown;
+            }
+            pinned[count++] = version;
+        }
+
+        /**
+         * Release the pinned removals made at or before the given oldest
+         * version that an open snapshot can see.
+         *
+         * @param oldest
+         *            The oldest visible version.
+         */
+        public void release(long oldest)
+        {
+            while (released < count && pinned[released] <= oldest)
+            {
+                released++;
+            }
+        }
+
+        /**
+         * Get the number of removed entries that no open snapshot can see.
+         *
+         * @return The number of removed entries that can be discarded.
+         */
+        public int getReclaimable()
+        {
+            return removed - count + released;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.goodworkalan.tuple.partial.harness;
+
+import java.util.Random;
+
+/**
+ * A distribution of keys from zero to a number of keys, used to choose the
+ * leading field of the tuples looked up by the load harness.
+ *
+ * @author Alan Gutierrez
+ */
+public abstract class KeyDistribution
+{
+    /** The name and parameters of the distribution for reports. */
+    private final String name;
+
+    /**
+     * Create a distribution with the given name.
+     *
+     * @param name
+     *            The name and parameters of the distribution.
+     */
+    private KeyDistribution(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Choose the next key.
+     *
+     * @param random
+     *            The random number generator of the calling thread.
+     * @return A key from zero to the number of keys less one.
+     */
+    public abstract long next(Random random);
+
+    /**
+     * Get the name and parameters of the distribution.
+     *
+     * @return The name of the distribution.
+     */
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
+    /**
+     * Create a distribution from a specification, one of
+     * <code>uniform</code>, <code>zipfian:<em>theta</em></code> or
+     * <code>hot:<em>keys</em>:<em>fraction</em></code>.
+     *
+     * @param specification
+     *            The specification.
+     * @param keys
+     *            The number of keys.
+     * @return The distribution.
+     * @exception IllegalArgumentException
+     *                If the specification is not understood.
+     */
+    public static KeyDistribution parse(String specification, long keys)
+    {
+        String[] parts = specification.split(":");
+        if (parts[0].equals("uniform") && parts.length == 1)
+        {
+            return uniform(keys);
+        }
+        if (parts[0].equals("zipfian") && parts.length <= 2)
+        {
+            return zipfian(keys, parts.length == 2 ? Double.parseDouble(parts[1]) : 0.99);
+        }
+        if (parts[0].equals("hot") && parts.length == 3)
+        {
+            return hotPrefix(keys, Long.parseLong(parts[1]), Double.parseDouble(parts[2]));
+        }
+        throw new IllegalArgumentException(specification);
+    }
+
+    /**
+     * Create a distribution where every key is equally likely.
+     *
+     * @param keys
+     *            The number of keys.
+     * @return A uniform distribution.
+     */
+    public static KeyDistribution uniform(final long keys)
+    {
+        return new KeyDistribution("uniform")
+        {
+            @Override
+            public long next(Random random)
+            {
+                return (long) (random.nextDouble() * keys);
+            }
+        };
+    }
+
+    /**
+     * Create a distribution where the likelihood of a key falls with a power
+     * of its rank, using the method of Gray et al., Quickly Generating
+     * Billion-Record Synthetic Databases. Key zero is the most likely.
+     *
+     * @param keys
+     *            The number of keys.
+     * @param theta
+     *            The skew, greater than zero and less than one.
+     * @return A Zipfian distribution.
+     */
+    public static KeyDistribution zipfian(final long keys, final double theta)
+    {
+        if (theta <= 0 || theta >= 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        double zeta = 0;
+        for (long i = 1; i <= keys; i++)
+        {
+            zeta += 1 / Math.pow(i, theta);
+        }
+        final double zetan = zeta;
+        final double zeta2 = 1 + 1 / Math.pow(2, theta);
+        final double alpha = 1 / (1 - theta);
+        final double eta = (1 - Math.pow(2.0 / keys, 1 - theta)) / (1 - zeta2 / zetan);
+        return new KeyDistribution("zipfian:" + theta)
+        {
+            @Override
+            public long next(Random random)
+            {
+                double u = random.nextDouble();
+                double uz = u * zetan;
+                if (uz < 1)
+                {
+                    return 0;
+                }
+                if (uz < zeta2)
+                {
+                    return 1;
+                }
+                return Math.min(keys - 1, (long) (keys * Math.pow(eta * u - eta + 1, alpha)));
+            }
+        };
+    }
+
+    /**
+     * Create a distribution where the given fraction of the choices are made
+     * uniformly from a small set of hot keys and the rest uniformly from the
+     * other keys.
+     *
+     * @param keys
+     *            The number of keys.
+     * @param hot
+     *            The number of hot keys, the keys from zero.
+     * @param fraction
+     *            The fraction of choices that are hot keys.
+     * @return A hot prefix distribution.
+     */
+    public static KeyDistribution hotPrefix(final long keys, final long hot, final double fraction)
+    {
+        if (hot < 1 || hot >= keys || fraction < 0 || fraction > 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        return new KeyDistribution("hot:" + hot + ":" + fraction)
+        {
+            @Override
+            public long next(Random random)
+            {
+                if (random.nextDouble() < fraction)
+                {
+                    return (long) (random.nextDouble() * hot);
+                }
+                return hot + (long) (random.nextDouble() * (keys - hot));
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.goodworkalan.tuple.partial.harness;
+
+/**
+ * A histogram of latencies in nanoseconds with buckets of logarithmic width,
+ * sixty-four buckets for each power of two, so that a recorded value is
+ * reported within about one and a half percent of its actual value. Values
+ * less than sixty-four are recorded exactly.
+ * <p>
+ * A histogram is not safe for use by multiple threads. Each thread of the
+ * load harness records into its own histograms and they are added together
+ * when the threads have finished.
+ *
+ * @author Alan Gutierrez
+ */
+public class LatencyHistogram
+{
+    /** The number of buckets for each power of two. */
+    private final static int SUB_BUCKETS = 64;
+
+    /** The number of bits in a sub bucket index. */
+    private final static int SUB_BUCKET_BITS = 6;
+
+    /** The count of values in each bucket. */
+    private final long[] counts = new long[SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+
+    /** The number of values recorded. */
+    private long count;
+
+    /** The sum of the values recorded. */
+    private long sum;
+
+    /** The greatest value recorded. */
+    private long max;
+
+    /**
+     * Get the bucket index of the given value.
+     *
+     * @param value
+     *            The value.
+     * @return The bucket index.
+     */
+    private static int bucket(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Get the greatest value that is recorded in the given bucket.
+     *
+     * @param bucket
+     *            The bucket index.
+     * @return The greatest value of the bucket.
+     */
+    private static long highest(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS | sub) << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Record a value. Negative values are recorded as zero.
+     *
+     * @param value
+     *            The value in nanoseconds.
+     */
+    public void record(long value)
+    {
+        value = Math.max(value, 0);
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add the values recorded by the given histogram to this histogram.
+     *
+     * @param other
+     *            The other histogram.
+     */
+    public void add(LatencyHistogram other)
+    {
+        for (int i = 0; i < counts.length; i++)
+        {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Get the number of values recorded.
+     *
+     * @return The number of values.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Get the greatest value recorded.
+     *
+     * @return The greatest value in nanoseconds.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Get the mean of the values recorded.
+     *
+     * @return The mean value in nanoseconds.
+     */
+    public double getMean()
+    {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Get the value at or below which the given percentage of the values
+     * recorded fall.
+     *
+     * @param percentile
+     *            The percentile from zero to one hundred.
+     * @return The value at the percentile in nanoseconds.
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if (count == 0)
+        {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++)
+        {
+            seen += counts[i];
+            if (seen >= target)
+            {
+                return Math.min(highest(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,133 @@
+package com.goodworkalan.tuple.partial.harness;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void percentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++)
+        {
+            histogram.record(i * 1000);
+        }
+        assertEquals(histogram.getCount(), 100000);
+        assertEquals(histogram.getMax(), 100000000);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertEquals(Math.abs(p50 - 50000000) < 50000000 / 60, true);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertEquals(Math.abs(p99 - 99000000) < 99000000 / 60, true);
+        assertEquals(histogram.getValueAtPercentile(100), 100000000);
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(-1);
+        assertEquals(small.getValueAtPercentile(50), 0);
+        assertEquals(small.getValueAtPercentile(100), 3);
+        histogram.add(small);
+        assertEquals(histogram.getCount(), 100002);
+    }
+
+    @Test
+    public void distributions()
+    {
+        Random random = new Random(1);
+        KeyDistribution zipfian = KeyDistribution.parse("zipfian:0.99", 1000);
+        KeyDistribution hot = KeyDistribution.parse("hot:10:0.9", 1000);
+        int zipfianZero = 0;
+        int hotHits = 0;
+        for (int i = 0; i < 10000; i++)
+        {
+            long key = zipfian.next(random);
+            assertEquals(key >= 0 && key < 1000, true);
+            zipfianZero += key == 0 ? 1 : 0;
+            hotHits += hot.next(random) < 10 ? 1 : 0;
+        }
+        assertEquals(zipfianZero > 500, true);
+        assertEquals(hotHits > 8500, true);
+    }
+
+    @Test
+    public void harness() throws Exception
+    {
+        File out = File.createTempFile("report", ".properties");
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try
+        {
+            LoadHarness harness = new LoadHarness();
+            harness.configure(new String[] {
+                "--arity", "3", "--rows", "10000", "--keys", "100", "--threads", "2", "--rate", "2000",
+                "--seconds", "1", "--warmup", "0", "--distribution", "zipfian:0.9", "--out", out.getPath() });
+            harness.build();
+            harness.run();
+            Properties report = new Properties();
+            FileInputStream in = new FileInputStream(out);
+            try
+            {
+                report.load(in);
+            }
+            finally
+            {
+                in.close();
+            }
+            assertEquals(report.getProperty("report.version"), "1");
+            assertEquals(report.getProperty("config.arity"), "3");
+            long count = Long.parseLong(report.getProperty("result.point.count"))
+                       + Long.parseLong(report.getProperty("result.prefix.count"))
+                       + Long.parseLong(report.getProperty("result.range.count"));
+            assertEquals(count > 1500 && count <= 2002, true);
+            assertEquals(Double.parseDouble(report.getProperty("result.throughput.ops.per.second")) > 0, true);
+            assertEquals(Double.parseDouble(report.getProperty("result.point.response.p50.us")) >= 0, true);
+        }
+        finally
+        {
+            Locale.setDefault(locale);
+            out.delete();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shortMix()
+    {
+        new LoadHarness().configure(new String[] { "--mix", "80:20" });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void emptyMix()
+    {
+        new LoadHarness().configure(new String[] { "--mix", "0:0:0" });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void negativeMix()
+    {
+        new LoadHarness().configure(new String[] { "--mix", "90:20:-10" });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void zeroRate()
+    {
+        new LoadHarness().configure(new String[] { "--rate", "0" });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void noThreads()
+    {
+        new LoadHarness().configure(new String[] { "--threads", "0" });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void excessiveRate()
+    {
+        new LoadHarness().configure(new String[] { "--threads", "1", "--rate", "2e9" });
+    }
+}
@@ -0,0 +1,587 @@
+package com.goodworkalan.tuple.partial.harness;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import com.goodworkalan.tuple.partial.FieldType;
+import com.goodworkalan.tuple.partial.FlatTuple;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.PartialDescriptor;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.Search;
+import com.goodworkalan.tuple.partial.TupleComparator;
+import com.goodworkalan.tuple.partial.TupleRange;
+import com.mallardsoft.tuple.Tuple;
+
+/**
+ * A load harness that drives point, prefix and range lookups against a
+ * synthetic sorted index of tuples from a number of threads at a fixed rate,
+ * and reports latency percentiles, throughput, allocation and garbage
+ * collection as <code>key=value</code> lines that can be compared across
+ * versions of the library.
+ * <p>
+ * The index is a sorted list of tuples of two to ten long fields. The leading
+ * field is a key from zero to the number of keys, the last field is a unique
+ * row number and the fields between are small random numbers. A point lookup
+ * searches for a whole row, a prefix lookup for all the rows of a key and a
+ * range lookup for the rows of a span of keys. The keys looked up are chosen
+ * by a {@link KeyDistribution}.
+ * <p>
+ * Each thread issues lookups on a fixed schedule. The response time of a
+ * lookup is measured from the time it was scheduled to start, not the time it
+ * did start, so that a stall that delays the lookups behind it is charged to
+ * each of them. This corrects for coordinated omission in the same way as
+ * recording with an expected interval. The service time, measured from the
+ * actual start, is reported beside it.
+ * <p>
+ * Allocation is measured with the per thread allocation counter of the
+ * <code>com.sun.management.ThreadMXBean</code> when the virtual machine has
+ * one, and is reported as <code>-1</code> otherwise.
+ * <p>
+ * Options are given as <code>--name value</code> pairs, see
+ * {@link #main(String[])}.
+ *
+ * @author Alan Gutierrez
+ */
+public class LoadHarness
+{
+    /** The version of the report format. */
+    private final static int REPORT_VERSION = 1;
+
+    /** The names of the lookup types. */
+    private final static String[] LOOKUPS = { "point", "prefix", "range" };
+
+    /** The options with their default values. */
+    private final Map<String, String> options = new LinkedHashMap<String, String>();
+
+    /** The sorted index. */
+    private List<Tuple<?, ?>> sorted;
+
+    /** The index of the first row of each key and the number of rows. */
+    private int[] keyStarts;
+
+    /** The partial comparator builder for whole rows. */
+    private Partial<Tuple<?, ?>, Tuple<?, ?>> point;
+
+    /** The partial comparator builder for the leading key. */
+    private Partial<Tuple<?, ?>, Tuple<?, ?>> prefix;
+
+    /** The number of keys in a range lookup. */
+    private long span;
+
+    /**
+     * Create a harness with the default options.
+     */
+    public LoadHarness()
+    {
+        options.put("arity", "4");
+        options.put("rows", "1000000");
+        options.put("keys", "10000");
+        options.put("threads", "4");
+        options.put("rate", "100000");
+        options.put("seconds", "10");
+        options.put("warmup", "2");
+        options.put("distribution", "uniform");
+        options.put("mix", "80:15:5");
+        options.put("span", "10");
+        options.put("seed", "1");
+        options.put("label", "none");
+        options.put("out", "-");
+    }
+
+    /**
+     * Set the options from <code>--name value</code> pairs.
+     *
+     * @param args
+     *            The arguments.
+     * @exception IllegalArgumentException
+     *                If an option is not known or has no value, or if the
+     *                lookup mix, the rate or the number of threads is not
+     *                valid.
+     */
+    public void configure(String[] args)
+    {
+        for (int i = 0; i < args.length; i += 2)
+        {
+            String name = args[i].startsWith("--") ? args[i].substring(2) : "";
+            if (!options.containsKey(name) || i + 1 == args.length)
+            {
+                throw new IllegalArgumentException(args[i]);
+            }
+            options.put(name, args[i + 1]);
+        }
+        weights();
+        interval();
+    }
+
+    /**
+     * Get the interval in nanoseconds between the lookups of each thread from
+     * the number of threads and the rate of all the threads.
+     *
+     * @return The interval between the lookups of a thread.
+     * @exception IllegalArgumentException
+     *                If there is not at least one thread, if the rate is not
+     *                positive, or if the rate is so high that the interval is
+     *                less than a nanosecond.
+     */
+    private long interval()
+    {
+        int threads = integer("threads");
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads " + options.get("threads"));
+        }
+        double rate = Double.parseDouble(options.get("rate"));
+        if (!(rate > 0))
+        {
+            throw new IllegalArgumentException("rate " + options.get("rate"));
+        }
+        long interval = (long) (threads * 1e9 / rate);
+        if (interval < 1)
+        {
+            throw new IllegalArgumentException("rate " + options.get("rate"));
+        }
+        return interval;
+    }
+
+    /**
+     * Get the cumulative weights of the point, prefix and range lookups from
+     * the lookup mix.
+     *
+     * @return The cumulative weights.
+     * @exception IllegalArgumentException
+     *                If the mix is not three non-negative weights with a
+     *                positive sum.
+     */
+    private int[] weights()
+    {
+        String[] mix = options.get("mix").split(":");
+        if (mix.length != LOOKUPS.length)
+        {
+            throw new IllegalArgumentException("mix " + options.get("mix"));
+        }
+        int[] weights = new int[LOOKUPS.length];
+        for (int i = 0; i < weights.length; i++)
+        {
+            int weight = Integer.parseInt(mix[i]);
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException("mix " + options.get("mix"));
+            }
+            weights[i] = (i == 0 ? 0 : weights[i - 1]) + weight;
+        }
+        if (weights[weights.length - 1] <= 0)
+        {
+            throw new IllegalArgumentException("mix " + options.get("mix"));
+        }
+        return weights;
+    }
+
+    /**
+     * Get an option as an integer.
+     *
+     * @param name
+     *            The option name.
+     * @return The integer value.
+     */
+    private int integer(String name)
+    {
+        return Integer.parseInt(options.get(name));
+    }
+
+    /**
+     * Build the sorted index and the partial comparator builders.
+     */
+    public void build()
+    {
+        int arity = integer("arity");
+        int rows = integer("rows");
+        int keys = integer("keys");
+        if (arity < 2 || arity > 10 || keys < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        Random random = new Random(integer("seed"));
+        List<Tuple<?, ?>> sorted = new ArrayList<Tuple<?, ?>>(rows);
+        for (int i = 0; i < rows; i++)
+        {
+            Object[] fields = new Object[arity];
+            fields[0] = (long) random.nextInt(keys);
+            for (int j = 1; j < arity - 1; j++)
+            {
+                fields[j] = (long) random.nextInt(4);
+            }
+            fields[arity - 1] = (long) i;
+            sorted.add(new FlatTuple(fields).<Tuple<?, ?>>toTuple());
+        }
+        Collections.sort(sorted, new TupleComparator<Tuple<?, ?>>());
+        int[] keyStarts = new int[keys + 1];
+        int row = 0;
+        for (int key = 0; key < keys; key++)
+        {
+            keyStarts[key] = row;
+            while (row < rows && FlatTuple.from(sorted.get(row)).getLong(0) == key)
+            {
+                row++;
+            }
+        }
+        keyStarts[keys] = rows;
+        FieldType[] types = new FieldType[arity];
+        for (int i = 0; i < arity; i++)
+        {
+            types[i] = FieldType.LONG;
+        }
+        this.sorted = sorted;
+        this.keyStarts = keyStarts;
+        this.point = new PartialDescriptor(arity, types).partial();
+        this.prefix = new PartialDescriptor(1, types).partial();
+    }
+
+    /**
+     * Run the lookups and write the report.
+     *
+     * @throws InterruptedException
+     *             If the thread is interrupted while waiting for the workers.
+     * @throws IOException
+     *             If the report cannot be written.
+     * @exception IllegalArgumentException
+     *                If the lookup mix, the rate or the number of threads is
+     *                not valid.
+     */
+    public void run() throws InterruptedException, IOException
+    {
+        int threads = integer("threads");
+        span = integer("span");
+        long interval = interval();
+        long start = System.nanoTime() + 100000000L;
+        long measure = start + integer("warmup") * 1000000000L;
+        long stop = measure + integer("seconds") * 1000000000L;
+        KeyDistribution distribution = KeyDistribution.parse(options.get("distribution"), keyStarts.length - 1);
+        int[] weights = weights();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            gcCount -= bean.getCollectionCount();
+            gcMillis -= bean.getCollectionTime();
+        }
+        List<Worker> workers = new ArrayList<Worker>();
+        for (int i = 0; i < threads; i++)
+        {
+            Worker worker = new Worker(distribution, weights, new Random(integer("seed") + i + 1),
+                                       start + interval * i / threads, interval, measure, stop);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Worker worker : workers)
+        {
+            worker.join();
+        }
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            gcCount += bean.getCollectionCount();
+            gcMillis += bean.getCollectionTime();
+        }
+        report(workers, (stop - measure) / 1e9, gcCount, gcMillis);
+    }
+
+    /**
+     * Write the report.
+     *
+     * @param workers
+     *            The finished workers.
+     * @param seconds
+     *            The length of the measured period.
+     * @param gcCount
+     *            The number of collections during the run.
+     * @param gcMillis
+     *            The milliseconds spent collecting during the run.
+     * @throws IOException
+     *             If the report cannot be written.
+     */
+    private void report(List<Worker> workers, double seconds, long gcCount, long gcMillis) throws IOException
+    {
+        String out = options.get("out");
+        PrintStream print = out.equals("-") ? System.out : new PrintStream(new FileOutputStream(out));
+        String version = Partial.class.getPackage() == null ? null : Partial.class.getPackage().getImplementationVersion();
+        print.println("report.version=" + REPORT_VERSION);
+        print.println("library.version=" + (version == null ? "unknown" : version));
+        print.println("java.version=" + System.getProperty("java.version"));
+        print.println("java.vm.name=" + System.getProperty("java.vm.name"));
+        for (Map.Entry<String, String> entry : options.entrySet())
+        {
+            if (!entry.getKey().equals("out"))
+            {
+                print.println("config." + entry.getKey() + "=" + entry.getValue());
+            }
+        }
+        long operations = 0;
+        long allocated = 0;
+        long sink = 0;
+        for (int i = 0; i < LOOKUPS.length; i++)
+        {
+            LatencyHistogram response = new LatencyHistogram();
+            LatencyHistogram service = new LatencyHistogram();
+            for (Worker worker : workers)
+            {
+                response.add(worker.responses[i]);
+                service.add(worker.services[i]);
+            }
+            operations += response.getCount();
+            print.println("result." + LOOKUPS[i] + ".count=" + response.getCount());
+            percentiles(print, "result." + LOOKUPS[i] + ".response", response);
+            percentiles(print, "result." + LOOKUPS[i] + ".service", service);
+        }
+        for (Worker worker : workers)
+        {
+            allocated = allocated < 0 || worker.allocated < 0 ? -1 : allocated + worker.allocated;
+            sink += worker.sink;
+        }
+        print.println("result.throughput.ops.per.second=" + String.format(Locale.US, "%.1f", operations / seconds));
+        print.println("result.allocation.bytes.per.op=" + (allocated < 0 ? "-1" : String.format(Locale.US, "%.1f", (double) allocated / Math.max(operations, 1))));
+        print.println("result.allocation.mb.per.second=" + (allocated < 0 ? "-1" : String.format(Locale.US, "%.1f", allocated / seconds / (1024 * 1024))));
+        print.println("result.gc.count=" + gcCount);
+        print.println("result.gc.millis=" + gcMillis);
+        print.println("result.checksum=" + sink);
+        if (print != System.out)
+        {
+            print.close();
+        }
+    }
+
+    /**
+     * Write the percentiles of a histogram in microseconds.
+     *
+     * @param print
+     *            The report.
+     * @param prefix
+     *            The key prefix.
+     * @param histogram
+     *            The histogram.
+     */
+    private static void percentiles(PrintStream print, String prefix, LatencyHistogram histogram)
+    {
+        double[] percentiles = { 50, 90, 99, 99.9, 99.99 };
+        String[] names = { "p50", "p90", "p99", "p999", "p9999" };
+        for (int i = 0; i < percentiles.length; i++)
+        {
+            print.println(prefix + "." + names[i] + ".us=" + String.format(Locale.US, "%.3f", histogram.getValueAtPercentile(percentiles[i]) / 1e3));
+        }
+        print.println(prefix + ".max.us=" + String.format(Locale.US, "%.3f", histogram.getMax() / 1e3));
+        print.println(prefix + ".mean.us=" + String.format(Locale.US, "%.3f", histogram.getMean() / 1e3));
+    }
+
+    /**
+     * Read the number of bytes allocated by the current thread, or -1 if the
+     * virtual machine does not count them.
+     *
+     * @return The bytes allocated by the current thread or -1.
+     */
+    private static long allocatedBytes()
+    {
+        try
+        {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            Object bean = ManagementFactory.getThreadMXBean();
+            if (!type.isInstance(bean))
+            {
+                return -1;
+            }
+            Method method = type.getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) method.invoke(bean, Thread.currentThread().getId());
+        }
+        catch (Exception e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * A thread that issues lookups on a fixed schedule.
+     */
+    private final class Worker extends Thread
+    {
+        /** The key distribution. */
+        private final KeyDistribution distribution;
+
+        /** The cumulative weights of the lookup types. */
+        private final int[] weights;
+
+        /** The random number generator. */
+        private final Random random;
+
+        /** The scheduled start of the next lookup. */
+        private long next;
+
+        /** The time between scheduled lookups. */
+        private final long interval;
+
+        /** The time at which measurement begins. */
+        private final long measure;
+
+        /** The time at which the lookups stop. */
+        private final long stop;
+
+        /** The response times of each lookup type. */
+        public final LatencyHistogram[] responses = new LatencyHistogram[LOOKUPS.length];
+
+        /** The service times of each lookup type. */
+        public final LatencyHistogram[] services = new LatencyHistogram[LOOKUPS.length];
+
+        /** The bytes allocated while measuring or -1 if unknown. */
+        public long allocated;
+
+        /** A sum of the lookup results so that they cannot be discarded. */
+        public long sink;
+
+        /**
+         * Create a worker.
+         *
+         * @param distribution
+         *            The key distribution.
+         * @param weights
+         *            The cumulative weights of the lookup types.
+         * @param random
+         *            The random number generator.
+         * @param first
+         *            The scheduled start of the first lookup.
+         * @param interval
+         *            The time between scheduled lookups.
+         * @param measure
+         *            The time at which measurement begins.
+         * @param stop
+         *            The time at which the lookups stop.
+         */
+        public Worker(KeyDistribution distribution, int[] weights, Random random, long first, long interval, long measure, long stop)
+        {
+            this.distribution = distribution;
+            this.weights = weights;
+            this.random = random;
+            this.next = first;
+            this.interval = interval;
+            this.measure = measure;
+            this.stop = stop;
+            for (int i = 0; i < LOOKUPS.length; i++)
+            {
+                responses[i] = new LatencyHistogram();
+                services[i] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * Issue lookups until the stop time.
+         */
+        @Override
+        public void run()
+        {
+            long before = -1;
+            while (next < stop)
+            {
+                long now;
+                while ((now = System.nanoTime()) < next)
+                {
+                    LockSupport.parkNanos(next - now);
+                }
+                if (before == -1 && next >= measure)
+                {
+                    before = allocatedBytes();
+                }
+                int choice = random.nextInt(weights[weights.length - 1]);
+                int lookup = 0;
+                while (choice >= weights[lookup])
+                {
+                    lookup++;
+                }
+                long key = distribution.next(random);
+                long begin = System.nanoTime();
+                sink += lookup(lookup, key);
+                long end = System.nanoTime();
+                if (next >= measure)
+                {
+                    responses[lookup].record(end - next);
+                    services[lookup].record(end - begin);
+                }
+                next += interval;
+            }
+            long after = allocatedBytes();
+            allocated = before < 0 || after < 0 ? -1 : after - before;
+        }
+
+        /**
+         * Perform a lookup.
+         *
+         * @param lookup
+         *            The lookup type.
+         * @param key
+         *            The leading key.
+         * @return The number of rows found.
+         */
+        private long lookup(int lookup, long key)
+        {
+            Run run;
+            switch (lookup)
+            {
+            case 0:
+                int from = keyStarts[(int) key];
+                int to = keyStarts[(int) key + 1];
+                if (from == to)
+                {
+                    return 0;
+                }
+                Tuple<?, ?> row = sorted.get(from + random.nextInt(to - from));
+                run = Search.run(sorted, point.compare(row));
+                break;
+            case 1:
+                run = Search.run(sorted, prefix.compare(Tuple.from(key)));
+                break;
+            default:
+                run = TupleRange.between(prefix, Tuple.from(key), true, prefix, Tuple.from(key + span), false).resolve(sorted);
+                break;
+            }
+            return run.size();
+        }
+    }
+
+    /**
+     * Run the load harness. The options and their defaults are:
+     * <dl>
+     * <dt><code>--arity 4</code></dt><dd>The number of fields from two to ten.</dd>
+     * <dt><code>--rows 1000000</code></dt><dd>The number of rows in the index.</dd>
+     * <dt><code>--keys 10000</code></dt><dd>The number of distinct leading keys.</dd>
+     * <dt><code>--threads 4</code></dt><dd>The number of lookup threads.</dd>
+     * <dt><code>--rate 100000</code></dt><dd>The lookups per second of all the threads.</dd>
+     * <dt><code>--seconds 10</code></dt><dd>The length of the measured period.</dd>
+     * <dt><code>--warmup 2</code></dt><dd>The seconds of lookups before measuring.</dd>
+     * <dt><code>--distribution uniform</code></dt><dd><code>uniform</code>, <code>zipfian:<em>theta</em></code> or <code>hot:<em>keys</em>:<em>fraction</em></code>.</dd>
+     * <dt><code>--mix 80:15:5</code></dt><dd>The weights of point, prefix and range lookups.</dd>
+     * <dt><code>--span 10</code></dt><dd>The number of keys in a range lookup.</dd>
+     * <dt><code>--seed 1</code></dt><dd>The random seed.</dd>
+     * <dt><code>--label none</code></dt><dd>A label copied into the report.</dd>
+     * <dt><code>--out -</code></dt><dd>The report file or <code>-</code> for standard output.</dd>
+     * </dl>
+     *
+     * @param args
+     *            The options.
+     * @throws Exception
+     *             If the harness fails.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        LoadHarness harness = new LoadHarness();
+        harness.configure(args);
+        harness.build();
+        harness.run();
+    }
+}
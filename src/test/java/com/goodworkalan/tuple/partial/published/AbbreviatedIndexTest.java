@@ -0,0 +1,83 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.AbbreviatedIndex;
+import com.goodworkalan.tuple.partial.AbbreviatedKey;
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.Search;
+import com.goodworkalan.tuple.partial.TupleComparator;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class AbbreviatedIndexTest
+{
+    @Test
+    public void keys()
+    {
+        assertEquals(AbbreviatedKey.of(null) < AbbreviatedKey.of(""), false);
+        assertEquals(AbbreviatedKey.of("") < AbbreviatedKey.of("a"), true);
+        assertEquals(AbbreviatedKey.of("ab") < AbbreviatedKey.of("abc"), true);
+        assertEquals(AbbreviatedKey.of("abcdx") == AbbreviatedKey.of("abcdy"), true);
+        assertEquals(AbbreviatedKey.of("\uffff") > AbbreviatedKey.of("a"), true);
+        assertEquals(AbbreviatedKey.of(null) < AbbreviatedKey.of(-1), true);
+        assertEquals(AbbreviatedKey.of(-1.5) < AbbreviatedKey.of(-0.5), true);
+        assertEquals(AbbreviatedKey.of(-0.0) < AbbreviatedKey.of(0.0), true);
+        assertEquals(AbbreviatedKey.of(0.5) < AbbreviatedKey.of(Double.NaN), true);
+    }
+
+    @Test
+    public void strings()
+    {
+        String[] words = { "apple", "applesauce", "applet", "apply", "ap", "banana", "band", "bandana", null, "" };
+        List<Triple<String, Integer, Integer>> tuples = new ArrayList<Triple<String, Integer, Integer>>();
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++)
+        {
+            tuples.add(Tuple.from(words[random.nextInt(words.length)], random.nextInt(5), i));
+        }
+        AbbreviatedIndex<Triple<String, Integer, Integer>> index = AbbreviatedIndex.sort(tuples);
+        List<Triple<String, Integer, Integer>> sorted = new ArrayList<Triple<String, Integer, Integer>>(tuples);
+        Collections.sort(sorted, new TupleComparator<Triple<String, Integer, Integer>>());
+        assertEquals(index.getList(), sorted);
+        Partial<Triple<String, Integer, Integer>, Single<String>> oneOfTriple
+            = Compare.oneOf(Compare.<String, Integer, Integer>triple());
+        Partial<Triple<String, Integer, Integer>, Pair<String, Integer>> twoOfTriple
+            = Compare.twoOf(Compare.<String, Integer, Integer>triple());
+        for (String word : new String[] { "apple", "applet", "appl", "band", "bane", "", null, "zebra" })
+        {
+            assertEquals(index.run(oneOfTriple, Tuple.from(word)), Search.run(sorted, oneOfTriple.compare(Tuple.from(word))));
+            for (int i = 0; i < 5; i++)
+            {
+                assertEquals(index.run(twoOfTriple, Tuple.from(word, i)), Search.run(sorted, twoOfTriple.compare(Tuple.from(word, i))));
+            }
+        }
+    }
+
+    @Test
+    public void integers()
+    {
+        List<Pair<Integer, String>> sorted = new ArrayList<Pair<Integer, String>>();
+        for (int i = 0; i < 100; i++)
+        {
+            sorted.add(Tuple.from(i / 4 * 2, Integer.toString(i)));
+        }
+        AbbreviatedIndex<Pair<Integer, String>> index = new AbbreviatedIndex<Pair<Integer, String>>(sorted);
+        Partial<Pair<Integer, String>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, String>pair());
+        assertEquals(index.run(oneOfPair, Tuple.from(4)), new Run(8, 12));
+        assertEquals(index.run(oneOfPair, Tuple.from(5)), new Run(12, 12));
+        assertEquals(index.get(oneOfPair, Tuple.from(48)).size(), 4);
+    }
+}
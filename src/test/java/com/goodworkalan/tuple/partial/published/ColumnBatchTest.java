@@ -0,0 +1,112 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.ColumnBatch;
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.FlatTuple;
+import com.goodworkalan.tuple.partial.IntColumn;
+import com.goodworkalan.tuple.partial.LongColumn;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.StringColumn;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class ColumnBatchTest
+{
+    @Test
+    public void filter()
+    {
+        Partial<Triple<Long, String, Integer>, Pair<Long, String>> twoOfTriple
+            = Compare.twoOf(Compare.<Long, String, Integer>triple());
+        List<Triple<Long, String, Integer>> tuples = new ArrayList<Triple<Long, String, Integer>>();
+        for (int i = 0; i < 100; i++)
+        {
+            tuples.add(Tuple.from((long) i % 5, i % 2 == 0 ? "even" : null, i));
+        }
+        ColumnBatch batch = ColumnBatch.from(tuples);
+        assertTrue(batch.getColumn(0) instanceof LongColumn);
+        assertTrue(batch.getColumn(1) instanceof StringColumn);
+        assertTrue(batch.getColumn(2) instanceof IntColumn);
+
+        int[] selection = new int[batch.size()];
+        int count = batch.filter(twoOfTriple, Tuple.from(3L, "even"), selection);
+        assertEquals(count, 10);
+        assertEquals(selection[0], 8);
+        assertEquals(batch.row(selection[1]), new FlatTuple(3L, "even", 18));
+
+        assertEquals(batch.filter(twoOfTriple, Tuple.from(3L, (String) null), selection), 10);
+        assertEquals(selection[0], 3);
+        assertEquals(batch.filter(twoOfTriple, Tuple.from(3L, "odd"), selection), 0);
+        assertEquals(batch.filter(new Object[] { 1L, null, 51 }, selection), 1);
+    }
+
+    private final static class Decimal extends Number implements Comparable<Object>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final double value;
+
+        public Decimal(double value)
+        {
+            this.value = value;
+        }
+
+        public int compareTo(Object other)
+        {
+            return Double.compare(value, ((Number) other).doubleValue());
+        }
+
+        @Override
+        public double doubleValue()
+        {
+            return value;
+        }
+
+        @Override
+        public float floatValue()
+        {
+            return (float) value;
+        }
+
+        @Override
+        public int intValue()
+        {
+            return (int) value;
+        }
+
+        @Override
+        public long longValue()
+        {
+            return (long) value;
+        }
+    }
+
+    @Test
+    public void mismatched()
+    {
+        ColumnBatch batch = new ColumnBatch(new LongColumn(new long[] { 1, 3, 3, 4 }), new IntColumn(new int[] { 3, 3, 4, 3 }));
+        int[] selection = new int[batch.size()];
+        assertEquals(batch.filter(new Object[] { new Decimal(3.7) }, selection), 0);
+        assertEquals(batch.filter(new Object[] { new Decimal(3.0) }, selection), 2);
+        assertEquals(batch.filter(new Object[] { 3L, new Decimal(3.7) }, selection), 0);
+        assertEquals(batch.filter(new Object[] { 3L, new Decimal(3.0) }, selection), 1);
+        assertEquals(selection[0], 1);
+        assertEquals(batch.filter(new Object[] { new Decimal(3.0), 4 }, selection), 1);
+        assertEquals(selection[0], 2);
+    }
+
+    @Test(expectedExceptions = ClassCastException.class)
+    public void doubleProbe()
+    {
+        ColumnBatch batch = new ColumnBatch(new IntColumn(new int[] { 3, 4 }));
+        batch.filter(new Object[] { 3.7 }, new int[batch.size()]);
+    }
+}
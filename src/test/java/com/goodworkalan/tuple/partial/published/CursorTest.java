@@ -0,0 +1,46 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Cursor;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class CursorTest
+{
+    @Test
+    public void seek()
+    {
+        Partial<Pair<Integer, String>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, String>pair());
+        List<Pair<Integer, String>> sorted = new ArrayList<Pair<Integer, String>>();
+        for (int i = 0; i < 100; i++)
+        {
+            sorted.add(Tuple.from(i / 4 * 2, Integer.toString(i)));
+        }
+        Cursor<Pair<Integer, String>> cursor = new Cursor<Pair<Integer, String>>(sorted);
+        assertTrue(cursor.seek(oneOfPair.compare(Tuple.from(0))));
+        assertEquals(cursor.getRun(), new Run(0, 4));
+        assertTrue(cursor.seek(oneOfPair.compare(Tuple.from(0))));
+        assertEquals(cursor.getRun(), new Run(0, 4));
+        assertFalse(cursor.seek(oneOfPair.compare(Tuple.from(3))));
+        assertEquals(cursor.getRun(), new Run(8, 8));
+        assertTrue(cursor.seek(oneOfPair.compare(Tuple.from(30))));
+        assertEquals(cursor.getRun(), new Run(60, 64));
+        assertTrue(cursor.seek(oneOfPair.compare(Tuple.from(2))));
+        assertEquals(cursor.getRun(), new Run(4, 8));
+        assertFalse(cursor.seek(oneOfPair.compare(Tuple.from(99))));
+        assertEquals(cursor.getRun(), new Run(100, 100));
+    }
+}
@@ -0,0 +1,49 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.FlatTuple;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.Search;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class FlatTupleTest
+{
+    @Test
+    public void convert()
+    {
+        FlatTuple flat = FlatTuple.from(Tuple.from("Gutierrez", "Alan", 1L));
+        assertEquals(flat.size(), 3);
+        assertEquals(flat.getString(0), "Gutierrez");
+        assertEquals(flat.get(1, String.class), "Alan");
+        assertEquals(flat.getLong(2), 1L);
+        Triple<String, String, Long> triple = flat.toTuple();
+        assertEquals(triple, Tuple.from("Gutierrez", "Alan", 1L));
+    }
+
+    @Test
+    public void compareFlat()
+    {
+        Partial<Triple<String, String, Integer>, Pair<String, String>> twoOfTriple
+            = Compare.twoOf(Compare.<String, String, Integer>triple());
+        List<FlatTuple> sorted = new ArrayList<FlatTuple>();
+        sorted.add(new FlatTuple("Smith", "Alan", 1));
+        sorted.add(new FlatTuple("Gutierrez", "Alan", 2));
+        sorted.add(new FlatTuple("Gutierrez", "Alan", 1));
+        sorted.add(new FlatTuple(null, "Alan", 1));
+        Collections.sort(sorted);
+        assertTrue(sorted.get(0).get(0) == null);
+        assertEquals(Search.run(sorted, twoOfTriple.compareFlat(Tuple.from("Gutierrez", "Alan"))), new Run(1, 3));
+    }
+}
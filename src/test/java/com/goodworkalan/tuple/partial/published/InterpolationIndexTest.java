@@ -0,0 +1,92 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.InterpolationIndex;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.Search;
+import com.goodworkalan.tuple.partial.TupleComparator;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class InterpolationIndexTest
+{
+    private final Partial<Triple<Long, Integer, String>, Single<Long>> oneOfTriple
+        = Compare.oneOf(Compare.<Long, Integer, String>triple());
+
+    private final Partial<Triple<Long, Integer, String>, Pair<Long, Integer>> twoOfTriple
+        = Compare.twoOf(Compare.<Long, Integer, String>triple());
+
+    private void check(List<Triple<Long, Integer, String>> tuples, long[] probes)
+    {
+        List<Triple<Long, Integer, String>> sorted = new ArrayList<Triple<Long, Integer, String>>(tuples);
+        Collections.sort(sorted, new TupleComparator<Triple<Long, Integer, String>>());
+        InterpolationIndex<Triple<Long, Integer, String>> index = new InterpolationIndex<Triple<Long, Integer, String>>(sorted, 16);
+        for (long probe : probes)
+        {
+            Run expected = Search.run(sorted, oneOfTriple.compare(Tuple.from(probe)));
+            assertEquals(index.run(oneOfTriple, Tuple.from(probe)), expected);
+            for (int i = 0; i < 3; i++)
+            {
+                expected = Search.run(sorted, twoOfTriple.compare(Tuple.from(probe, i)));
+                assertEquals(index.run(twoOfTriple, Tuple.from(probe, i)), expected);
+            }
+        }
+        Long none = null;
+        assertEquals(index.run(oneOfTriple, Tuple.from(none)), Search.run(sorted, oneOfTriple.compare(Tuple.from(none))));
+    }
+
+    @Test
+    public void uniform()
+    {
+        List<Triple<Long, Integer, String>> tuples = new ArrayList<Triple<Long, Integer, String>>();
+        for (long i = 0; i < 1000; i++)
+        {
+            tuples.add(Tuple.from(1000000 + i * 3, (int) (i % 3), "x"));
+        }
+        long[] probes = new long[200];
+        for (int i = 0; i < probes.length; i++)
+        {
+            probes[i] = 1000000 + i * 17 - 50;
+        }
+        check(tuples, probes);
+        List<Triple<Long, Integer, String>> sorted = new ArrayList<Triple<Long, Integer, String>>(tuples);
+        InterpolationIndex<Triple<Long, Integer, String>> index = new InterpolationIndex<Triple<Long, Integer, String>>(sorted, 64);
+        assertEquals(index.getMaximumError() <= 1, true);
+        assertEquals(index.get(oneOfTriple, Tuple.from(1000000L + 30)).size(), 1);
+    }
+
+    @Test
+    public void skewed()
+    {
+        Random random = new Random(1);
+        List<Triple<Long, Integer, String>> tuples = new ArrayList<Triple<Long, Integer, String>>();
+        Long none = null;
+        for (int i = 0; i < 1000; i++)
+        {
+            long value = (long) Math.pow(2, random.nextInt(40)) + random.nextInt(3);
+            tuples.add(Tuple.from(i % 50 == 0 ? none : Long.valueOf(value), random.nextInt(3), "x"));
+        }
+        tuples.add(Tuple.from(Long.MAX_VALUE, 0, "x"));
+        tuples.add(Tuple.from(Long.MIN_VALUE, 0, "x"));
+        long[] probes = new long[300];
+        for (int i = 0; i < probes.length; i++)
+        {
+            probes[i] = (long) Math.pow(2, random.nextInt(42)) + random.nextInt(4) - 1;
+        }
+        probes[0] = Long.MAX_VALUE;
+        probes[1] = Long.MIN_VALUE;
+        check(tuples, probes);
+    }
+}
@@ -0,0 +1,64 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Operation;
+import com.goodworkalan.tuple.partial.OperationEvent;
+import com.goodworkalan.tuple.partial.OperationListener;
+import com.goodworkalan.tuple.partial.OperationRecorder;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class OperationRecorderTest
+{
+    @Test
+    public void record()
+    {
+        final List<OperationEvent> events = new ArrayList<OperationEvent>();
+        OperationRecorder recorder = new OperationRecorder(new OperationListener()
+        {
+            public void slow(OperationEvent event)
+            {
+                events.add(event);
+            }
+        }, 0, TimeUnit.NANOSECONDS);
+        Partial<Pair<Integer, String>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, String>pair());
+        List<Pair<Integer, String>> list = new ArrayList<Pair<Integer, String>>();
+        for (int i = 9; i >= 0; i--)
+        {
+            list.add(Tuple.from(i / 2, Integer.toString(i)));
+        }
+        recorder.sort(list);
+        assertEquals(list.get(0), Tuple.from(0, "0"));
+        assertEquals(events.get(0).getOperation(), Operation.SORT);
+        assertEquals(events.get(0).getArity(), 2);
+        assertEquals(events.get(0).getRowCount(), 10);
+
+        Run run = recorder.run(oneOfPair, list, Tuple.from(3));
+        assertEquals(run, new Run(6, 8));
+        assertEquals(events.get(1).getOperation(), Operation.LOOKUP);
+        assertEquals(events.get(1).getSharedCount(), 1);
+        assertEquals(events.get(1).getRowCount(), 2);
+
+        Iterator<Pair<Integer, String>> scan = recorder.scan(oneOfPair, list, Tuple.from(4));
+        while (scan.hasNext())
+        {
+            scan.next();
+        }
+        assertEquals(events.size(), 3);
+        assertEquals(events.get(2).getOperation(), Operation.SCAN);
+        assertEquals(events.get(2).getRowCount(), 2);
+    }
+}
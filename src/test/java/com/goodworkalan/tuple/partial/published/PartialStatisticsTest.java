@@ -0,0 +1,61 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.PartialStatistics;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class PartialStatisticsTest
+{
+    @Test
+    public void instrument()
+    {
+        PartialStatistics statistics = new PartialStatistics();
+        Partial<Triple<String, Integer, String>, Pair<String, Integer>> twoOfTriple
+            = Compare.twoOf(Compare.<String, Integer, String>triple()).instrument(statistics);
+
+        Comparable<Triple<String, Integer, String>> compare = twoOfTriple.compare(Tuple.from("A", 1));
+        assertEquals(compare.compareTo(Tuple.from("A", 1, "Z")), 0);
+        assertEquals(compare.compareTo(Tuple.from("B", 1, "Z")) < 0, true);
+        assertEquals(compare.compareTo(Tuple.from("A", (Integer) null, "Z")), 1);
+        assertEquals(statistics.getComparableCount(), 1);
+        assertEquals(statistics.getCompareCount(), 3);
+        assertEquals(statistics.getNullDecidedCount(), 1);
+        assertEquals(statistics.getDepthHistogram()[0], 1);
+        assertEquals(statistics.getDepthHistogram()[1], 2);
+        assertEquals(statistics.getComparesPerLookup(), 3.0, 0.0);
+    }
+
+    @Test
+    public void delegate()
+    {
+        Partial<Triple<String, Integer, String>, Pair<String, Integer>> twoOfTriple
+            = Compare.twoOf(Compare.<String, Integer, String>triple());
+        Partial<Triple<String, Integer, String>, Pair<String, Integer>> instrumented
+            = twoOfTriple.instrument(new PartialStatistics());
+        String[] strings = { null, "A", "B" };
+        Integer[] integers = { null, 1, 2 };
+        for (String left : strings)
+        {
+            for (Integer right : integers)
+            {
+                Comparable<Triple<String, Integer, String>> expected = twoOfTriple.compare(Tuple.from(left, right));
+                Comparable<Triple<String, Integer, String>> actual = instrumented.compare(Tuple.from(left, right));
+                for (String first : strings)
+                {
+                    for (Integer second : integers)
+                    {
+                        Triple<String, Integer, String> tuple = Tuple.from(first, second, "Z");
+                        assertEquals(Integer.signum(actual.compareTo(tuple)), Integer.signum(expected.compareTo(tuple)));
+                    }
+                }
+            }
+        }
+    }
+}
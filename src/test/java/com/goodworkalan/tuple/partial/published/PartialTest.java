@@ -8,6 +8,7 @@ import org.testng.annotations.Test;
 
 import com.goodworkalan.tuple.partial.Compare;
 import com.goodworkalan.tuple.partial.Partial;
+import com.mallardsoft.tuple.End;
 import com.mallardsoft.tuple.Pair;
 import com.mallardsoft.tuple.Triple;
 import com.mallardsoft.tuple.Tuple;
@@ -35,4 +36,20 @@ public class PartialTest
                             .compareTo(Tuple.from("A", 1 , 'A'));
         assertEquals(compare, 0);
     }
+    
+    @Test
+    public void built()
+    {
+        Partial<Tuple<String, Tuple<Integer, Tuple<Character, End>>>, Tuple<String, Tuple<Integer, End>>> partial
+            = Compare
+                .<Character>ignore()
+                .<Integer>shared()
+                .<String>shared()
+                    .partial();
+        assertEquals(partial.getSharedCount(), 2);
+        Comparable<Tuple<String, Tuple<Integer, Tuple<Character, End>>>> compare = partial.compare(Tuple.from("A", 1));
+        assertEquals(compare.compareTo(Tuple.from("A", 1, 'Z')), 0);
+        assertEquals(compare.compareTo(Tuple.from("A", 2, 'A')) < 0, true);
+        assertEquals(compare.compareTo(Tuple.from((String) null, 1, 'A')), 1);
+    }
 }
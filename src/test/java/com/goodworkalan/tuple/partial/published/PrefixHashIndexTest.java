@@ -0,0 +1,41 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.PrefixHashIndex;
+import com.goodworkalan.tuple.partial.Run;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class PrefixHashIndexTest
+{
+    @Test
+    public void run()
+    {
+        Partial<Triple<String, String, Integer>, Pair<String, String>> twoOfTriple
+            = Compare.twoOf(Compare.<String, String, Integer>triple());
+        List<Triple<String, String, Integer>> sorted = new ArrayList<Triple<String, String, Integer>>();
+        sorted.add(Tuple.from((String) null, "Alan", 1));
+        sorted.add(Tuple.from("Gutierrez", "Alan", 1));
+        sorted.add(Tuple.from("Gutierrez", "Alan", 2));
+        sorted.add(Tuple.from("Gutierrez", "Maria", 1));
+        sorted.add(Tuple.from("Smith", "Alan", 1));
+
+        PrefixHashIndex<Triple<String, String, Integer>, Pair<String, String>> index
+            = new PrefixHashIndex<Triple<String, String, Integer>, Pair<String, String>>(twoOfTriple, sorted);
+        assertEquals(index.run(Tuple.from("Gutierrez", "Alan")), new Run(1, 3));
+        assertEquals(index.run(Tuple.from((String) null, "Alan")), new Run(0, 1));
+        assertEquals(index.get(Tuple.from("Smith", "Alan")).size(), 1);
+        assertNull(index.run(Tuple.from("Smith", "Maria")));
+        assertEquals(index.get(Tuple.from("Jones", "Alan")).size(), 0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.HyperLogLog;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.PrefixStatistics;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class PrefixStatisticsTest
+{
+    @Test
+    public void hyperLogLog()
+    {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100000; i++)
+        {
+            sketch.add(Integer.valueOf(i % 50000).hashCode());
+        }
+        assertEquals(sketch.estimate(), 50000, 2500);
+    }
+
+    @Test
+    public void estimateMatches()
+    {
+        Partial<Pair<Integer, Integer>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, Integer>pair());
+        List<Pair<Integer, Integer>> sorted = new ArrayList<Pair<Integer, Integer>>();
+        for (int i = 0; i < 1000; i++)
+        {
+            sorted.add(Tuple.from(i / 10 * 2, i));
+        }
+        for (int i = 0; i < 1000; i++)
+        {
+            sorted.add(Tuple.from(1000, i));
+        }
+        PrefixStatistics<Pair<Integer, Integer>> statistics = new PrefixStatistics<Pair<Integer, Integer>>(sorted, 100);
+        assertEquals(statistics.size(), 2000);
+        assertEquals(statistics.distinct(1), 101, 5);
+        assertEquals(statistics.distinct(2), 2000, 100);
+        assertEquals(statistics.estimateMatches(oneOfPair, Tuple.from(1000)), 1000, 40);
+        long estimate = statistics.estimateMatches(oneOfPair, Tuple.from(10));
+        assertTrue(estimate >= 10 && estimate <= 40);
+        assertEquals(statistics.estimateMatches(oneOfPair, Tuple.from(11)), 20);
+        assertEquals(statistics.estimateMatches(oneOfPair, Tuple.from(-1)), 0);
+        assertEquals(statistics.estimateMatches(oneOfPair, Tuple.from(1001)), 0);
+    }
+
+    @Test
+    public void composite()
+    {
+        List<Pair<Integer, Integer>> sorted = new AbstractList<Pair<Integer, Integer>>()
+        {
+            @Override
+            public Pair<Integer, Integer> get(int index)
+            {
+                return Tuple.from(index / 1000, index % 1000);
+            }
+
+            @Override
+            public int size()
+            {
+                return 1000000;
+            }
+        };
+        PrefixStatistics<Pair<Integer, Integer>> statistics = new PrefixStatistics<Pair<Integer, Integer>>(sorted, 100);
+        assertEquals(statistics.distinct(1), 1000, 50);
+        assertEquals(statistics.distinct(2), 1000000, 50000);
+    }
+}
@@ -0,0 +1,84 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.FlatTuple;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.RangePartitioner;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.TupleComparator;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class RangePartitionerTest
+{
+    private final Partial<Pair<Integer, Integer>, Single<Integer>> oneOfPair
+        = Compare.oneOf(Compare.<Integer, Integer>pair());
+
+    private List<Pair<Integer, Integer>> tuples()
+    {
+        Random random = new Random(1);
+        List<Pair<Integer, Integer>> tuples = new ArrayList<Pair<Integer, Integer>>();
+        for (int i = 0; i < 20000; i++)
+        {
+            int key = (int) Math.sqrt(random.nextInt(1000000));
+            tuples.add(Tuple.from(key, random.nextInt(1000)));
+        }
+        return tuples;
+    }
+
+    @Test
+    public void balanced()
+    {
+        List<Pair<Integer, Integer>> tuples = tuples();
+        List<Pair<Integer, Integer>> sample = RangePartitioner.sample(tuples.iterator(), 1000, new Random(2));
+        assertEquals(sample.size(), 1000);
+        RangePartitioner<Pair<Integer, Integer>> partitioner = new RangePartitioner<Pair<Integer, Integer>>(sample, 8);
+        assertEquals(partitioner.getShardCount(), 8);
+        int[] counts = new int[8];
+        for (Pair<Integer, Integer> tuple : tuples)
+        {
+            counts[partitioner.route(tuple)]++;
+        }
+        for (int count : counts)
+        {
+            assertEquals(count > 1250 && count < 3750, true);
+        }
+        List<Pair<Integer, Integer>> sorted = new ArrayList<Pair<Integer, Integer>>(tuples);
+        Collections.sort(sorted, new TupleComparator<Pair<Integer, Integer>>());
+        int shard = 0;
+        for (Pair<Integer, Integer> tuple : sorted)
+        {
+            int next = partitioner.route(tuple);
+            assertEquals(next >= shard, true);
+            shard = next;
+            Run run = partitioner.route(oneOfPair, Tuple.from(FlatTuple.from(tuple).getInt(0)));
+            assertEquals(run.getStart() <= next && next < run.getEnd(), true);
+        }
+    }
+
+    @Test
+    public void prefix()
+    {
+        List<Pair<Integer, Integer>> tuples = tuples();
+        RangePartitioner<Pair<Integer, Integer>> partitioner = new RangePartitioner<Pair<Integer, Integer>>(oneOfPair, tuples, 8);
+        assertEquals(partitioner.getSplit(1).size(), 1);
+        for (Pair<Integer, Integer> tuple : tuples)
+        {
+            Run run = partitioner.route(oneOfPair, Tuple.from(FlatTuple.from(tuple).getInt(0)));
+            assertEquals(run.size(), 1);
+            assertEquals(run.getStart(), partitioner.route(tuple));
+        }
+        RangePartitioner<Pair<Integer, Integer>> single = new RangePartitioner<Pair<Integer, Integer>>(oneOfPair, Collections.nCopies(10, Tuple.from(1, 1)), 4);
+        assertEquals(single.getShardCount(), 2);
+    }
+}
@@ -0,0 +1,60 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Scan;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class ScanTest
+{
+    private List<Pair<Integer, Integer>> sorted()
+    {
+        List<Pair<Integer, Integer>> sorted = new ArrayList<Pair<Integer, Integer>>();
+        for (int i = 0; i < 100; i++)
+        {
+            sorted.add(Tuple.from(i / 10, i));
+        }
+        return sorted;
+    }
+
+    @Test
+    public void list()
+    {
+        Partial<Pair<Integer, Integer>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, Integer>pair());
+        Scan<Pair<Integer, Integer>> scan
+            = new Scan<Pair<Integer, Integer>>(sorted(), oneOfPair.compare(Tuple.from(3)));
+        List<Pair<Integer, Integer>> batch = new ArrayList<Pair<Integer, Integer>>();
+        assertEquals(scan.fill(batch, 4), 4);
+        assertEquals(batch.get(0), Tuple.from(3, 30));
+        batch.clear();
+        assertEquals(scan.fill(batch, 100), 6);
+        assertEquals(batch.get(5), Tuple.from(3, 39));
+        assertFalse(scan.hasNext());
+    }
+
+    @Test
+    public void iterator()
+    {
+        Partial<Pair<Integer, Integer>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, Integer>pair());
+        Scan<Pair<Integer, Integer>> scan
+            = new Scan<Pair<Integer, Integer>>(sorted().iterator(), oneOfPair.compare(Tuple.from(9)));
+        int count = 0;
+        while (scan.hasNext())
+        {
+            assertEquals(scan.next(), Tuple.from(9, 90 + count++));
+        }
+        assertEquals(count, 10);
+    }
+}
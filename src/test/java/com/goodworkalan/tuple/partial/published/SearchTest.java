@@ -0,0 +1,62 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.Search;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class SearchTest
+{
+    private List<Pair<Integer, String>> sorted()
+    {
+        List<Pair<Integer, String>> sorted = new ArrayList<Pair<Integer, String>>();
+        for (int i = 0; i < 100; i++)
+        {
+            sorted.add(Tuple.from(i / 4 * 2, Integer.toString(i)));
+        }
+        return sorted;
+    }
+
+    @Test
+    public void run()
+    {
+        Partial<Pair<Integer, String>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, String>pair());
+        List<Pair<Integer, String>> sorted = sorted();
+        assertEquals(Search.run(sorted, oneOfPair.compare(Tuple.from(4))), new Run(8, 12));
+        assertEquals(Search.run(sorted, oneOfPair.compare(Tuple.from(5))), new Run(12, 12));
+        assertEquals(Search.run(sorted, oneOfPair.compare(Tuple.from(99))), new Run(100, 100));
+    }
+
+    @Test
+    public void runs()
+    {
+        Partial<Pair<Integer, String>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, String>pair());
+        List<Single<Integer>> probes = new ArrayList<Single<Integer>>();
+        probes.add(Tuple.from(40));
+        probes.add(Tuple.from(4));
+        probes.add(Tuple.from(-1));
+        probes.add(Tuple.from(4));
+        probes.add(Tuple.from(5));
+        probes.add(Tuple.from(0));
+        List<Run> runs = Search.runs(oneOfPair, sorted(), probes);
+        assertEquals(runs.size(), probes.size());
+        assertEquals(runs.get(0), new Run(80, 84));
+        assertEquals(runs.get(1), new Run(8, 12));
+        assertEquals(runs.get(2), new Run(0, 0));
+        assertEquals(runs.get(3), new Run(8, 12));
+        assertEquals(runs.get(4), new Run(12, 12));
+        assertEquals(runs.get(5), new Run(0, 4));
+    }
+}
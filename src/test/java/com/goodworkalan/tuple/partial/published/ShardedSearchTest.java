@@ -0,0 +1,61 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.ShardedSearch;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class ShardedSearchTest
+{
+    @Test
+    public void search() throws Exception
+    {
+        Partial<Pair<Integer, String>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, String>pair());
+        List<List<Pair<Integer, String>>> shards = new ArrayList<List<Pair<Integer, String>>>();
+        for (int i = 0; i < 3; i++)
+        {
+            List<Pair<Integer, String>> shard = new ArrayList<Pair<Integer, String>>();
+            for (int j = 0; j < 10; j++)
+            {
+                shard.add(Tuple.from(j * (i + 1), "x"));
+            }
+            shards.add(shard);
+        }
+        List<Single<Integer>> probes = new ArrayList<Single<Integer>>();
+        for (int i = 0; i < 7; i++)
+        {
+            probes.add(Tuple.from(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            ShardedSearch<Pair<Integer, String>, Single<Integer>> search
+                = new ShardedSearch<Pair<Integer, String>, Single<Integer>>(oneOfPair, shards, executor, 3);
+            List<List<Run>> runs = search.search(probes, 1, TimeUnit.MINUTES);
+            assertEquals(runs.size(), 3);
+            assertEquals(runs.get(0).size(), 7);
+            assertEquals(runs.get(0).get(6), new Run(6, 7));
+            assertEquals(runs.get(1).get(5), new Run(3, 3));
+            assertEquals(runs.get(2).get(6), new Run(2, 3));
+            assertEquals(search.getBatchCount(), 1);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
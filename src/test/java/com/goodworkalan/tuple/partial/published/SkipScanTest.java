@@ -0,0 +1,118 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.SkipScan;
+import com.goodworkalan.tuple.partial.TupleRange;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Quadruple;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class SkipScanTest
+{
+    private final Partial<Quadruple<Integer, Integer, Integer, String>, Single<Integer>> oneOfQuadruple
+        = Compare.oneOf(Compare.<Integer, Integer, Integer, String>quadruple());
+
+    private final Partial<Quadruple<Integer, Integer, Integer, String>, Pair<Integer, Integer>> twoOfQuadruple
+        = Compare.twoOf(Compare.<Integer, Integer, Integer, String>quadruple());
+
+    private final static class Counting<T> extends AbstractList<T>
+    {
+        private final List<T> list;
+
+        public int gets;
+
+        public Counting(List<T> list)
+        {
+            this.list = list;
+        }
+
+        @Override
+        public T get(int index)
+        {
+            gets++;
+            return list.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return list.size();
+        }
+    }
+
+    private List<Quadruple<Integer, Integer, Integer, String>> sorted()
+    {
+        List<Quadruple<Integer, Integer, Integer, String>> sorted = new ArrayList<Quadruple<Integer, Integer, Integer, String>>();
+        for (int tenant = 0; tenant < 10; tenant++)
+        {
+            for (int user = 0; user < 5; user++)
+            {
+                for (int time = 0; time < 200; time++)
+                {
+                    sorted.add(Tuple.from(tenant, user, time, "row"));
+                }
+            }
+        }
+        return sorted;
+    }
+
+    @Test
+    public void distinct()
+    {
+        Counting<Quadruple<Integer, Integer, Integer, String>> sorted = new Counting<Quadruple<Integer, Integer, Integer, String>>(sorted());
+        SkipScan<Quadruple<Integer, Integer, Integer, String>> scan = new SkipScan<Quadruple<Integer, Integer, Integer, String>>(oneOfQuadruple, sorted);
+        int tenant = 0;
+        while (scan.hasNext())
+        {
+            assertEquals(scan.next(), Tuple.from(tenant, 0, 0, "row"));
+            assertEquals(scan.getRun(), new Run(tenant * 1000, tenant * 1000 + 1000));
+            tenant++;
+        }
+        assertEquals(tenant, 10);
+        assertEquals(sorted.gets < 400, true);
+    }
+
+    @Test
+    public void latest()
+    {
+        List<Quadruple<Integer, Integer, Integer, String>> sorted = sorted();
+        SkipScan<Quadruple<Integer, Integer, Integer, String>> scan = new SkipScan<Quadruple<Integer, Integer, Integer, String>>(twoOfQuadruple, sorted);
+        int count = 0;
+        while (scan.hasNext())
+        {
+            scan.next();
+            Quadruple<Integer, Integer, Integer, String> latest = sorted.get(scan.getRun().getEnd() - 1);
+            assertEquals(latest, Tuple.from(count / 5, count % 5, 199, "row"));
+            count++;
+        }
+        assertEquals(count, 50);
+    }
+
+    @Test
+    public void range()
+    {
+        List<Quadruple<Integer, Integer, Integer, String>> sorted = sorted();
+        TupleRange<Quadruple<Integer, Integer, Integer, String>> range
+            = TupleRange.between(twoOfQuadruple, Tuple.from(3, 2), false, oneOfQuadruple, Tuple.from(4), true);
+        SkipScan<Quadruple<Integer, Integer, Integer, String>> scan = new SkipScan<Quadruple<Integer, Integer, Integer, String>>(twoOfQuadruple, sorted, range);
+        List<Quadruple<Integer, Integer, Integer, String>> firsts = new ArrayList<Quadruple<Integer, Integer, Integer, String>>();
+        while (scan.hasNext())
+        {
+            firsts.add(scan.next());
+        }
+        assertEquals(firsts.size(), 7);
+        assertEquals(firsts.get(0), Tuple.from(3, 3, 0, "row"));
+        assertEquals(firsts.get(6), Tuple.from(4, 4, 0, "row"));
+    }
+}
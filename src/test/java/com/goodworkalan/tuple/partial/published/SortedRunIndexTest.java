@@ -0,0 +1,204 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.FieldType;
+import com.goodworkalan.tuple.partial.FileRunStore;
+import com.goodworkalan.tuple.partial.HeapRunStore;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.RunStore;
+import com.goodworkalan.tuple.partial.SortedRunIndex;
+import com.goodworkalan.tuple.partial.TupleCodec;
+import com.goodworkalan.tuple.partial.TupleComparator;
+import com.goodworkalan.tuple.partial.TupleRange;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class SortedRunIndexTest
+{
+    private final Partial<Pair<Integer, String>, Single<Integer>> oneOfPair
+        = Compare.oneOf(Compare.<Integer, String>pair());
+
+    private void fill(SortedRunIndex<Pair<Integer, String>> index)
+    {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 200; i++)
+        {
+            values.add(i);
+        }
+        Collections.shuffle(values, new Random(1));
+        for (int i : values)
+        {
+            index.add(Tuple.from(i / 4, String.format("%03d", i)));
+        }
+    }
+
+    private List<Pair<Integer, String>> list(Iterator<Pair<Integer, String>> iterator)
+    {
+        List<Pair<Integer, String>> list = new ArrayList<Pair<Integer, String>>();
+        while (iterator.hasNext())
+        {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    private void check(SortedRunIndex<Pair<Integer, String>> index)
+    {
+        assertEquals(index.size(), 200);
+        List<Pair<Integer, String>> all = list(index.iterator());
+        assertEquals(all.size(), 200);
+        for (int i = 0; i < 200; i++)
+        {
+            assertEquals(all.get(i), Tuple.from(i / 4, String.format("%03d", i)));
+        }
+        List<Pair<Integer, String>> found = list(index.scan(oneOfPair, Tuple.from(7)));
+        assertEquals(found.size(), 4);
+        assertEquals(found.get(0), Tuple.from(7, "028"));
+        assertEquals(found.get(3), Tuple.from(7, "031"));
+        List<Pair<Integer, String>> range = list(index.scan(TupleRange.between(oneOfPair, Tuple.from(10), false, oneOfPair, Tuple.from(13), true)));
+        assertEquals(range.size(), 12);
+        assertEquals(range.get(0), Tuple.from(11, "044"));
+        assertEquals(list(index.scan(oneOfPair, Tuple.from(99))).size(), 0);
+    }
+
+    @Test
+    public void heap()
+    {
+        SortedRunIndex<Pair<Integer, String>> index = new SortedRunIndex<Pair<Integer, String>>(new HeapRunStore<Pair<Integer, String>>(), null, 16, 3);
+        fill(index);
+        assertEquals(index.getRunCount() <= 4, true);
+        check(index);
+        index.flush();
+        check(index);
+    }
+
+    @Test
+    public void file() throws IOException
+    {
+        File directory = File.createTempFile("runs", "");
+        directory.delete();
+        directory.mkdir();
+        try
+        {
+            TupleCodec codec = new TupleCodec(FieldType.INTEGER, FieldType.STRING);
+            SortedRunIndex<Pair<Integer, String>> index = new SortedRunIndex<Pair<Integer, String>>(new FileRunStore<Pair<Integer, String>>(directory, codec), null, 16, 3);
+            fill(index);
+            check(index);
+            index.flush();
+            assertEquals(index.compact(), true);
+            assertEquals(index.getRunCount(), 1);
+            assertEquals(directory.listFiles().length, 1);
+            check(index);
+        }
+        finally
+        {
+            for (File file : directory.listFiles())
+            {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void overrun() throws IOException
+    {
+        File directory = File.createTempFile("runs", "");
+        directory.delete();
+        directory.mkdir();
+        try
+        {
+            TupleCodec codec = new TupleCodec(FieldType.INTEGER, FieldType.STRING);
+            FileRunStore<Pair<Integer, String>> store = new FileRunStore<Pair<Integer, String>>(directory, codec);
+            List<Pair<Integer, String>> tuples = new ArrayList<Pair<Integer, String>>();
+            for (int i = 0; i < 4; i++)
+            {
+                tuples.add(Tuple.from(i, "a"));
+            }
+            boolean thrown = false;
+            try
+            {
+                store.store(tuples.iterator(), 3);
+            }
+            catch (IllegalStateException e)
+            {
+                thrown = true;
+            }
+            assertEquals(thrown, true);
+            assertEquals(directory.listFiles().length, 0);
+        }
+        finally
+        {
+            for (File file : directory.listFiles())
+            {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void background() throws InterruptedException
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        SortedRunIndex<Pair<Integer, String>> index = new SortedRunIndex<Pair<Integer, String>>(new HeapRunStore<Pair<Integer, String>>(), executor, 8, 2);
+        fill(index);
+        check(index);
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(index.getMergeFailure(), null);
+        check(index);
+    }
+
+    @Test
+    public void tiers()
+    {
+        final HeapRunStore<Pair<Integer, String>> heap = new HeapRunStore<Pair<Integer, String>>();
+        final int[] written = new int[1];
+        RunStore<Pair<Integer, String>> counting = new RunStore<Pair<Integer, String>>()
+        {
+            public List<Pair<Integer, String>> store(Iterator<Pair<Integer, String>> sorted, int size)
+            {
+                written[0] += size;
+                return heap.store(sorted, size);
+            }
+
+            public void release(List<Pair<Integer, String>> run)
+            {
+                heap.release(run);
+            }
+        };
+        SortedRunIndex<Pair<Integer, String>> index = new SortedRunIndex<Pair<Integer, String>>(counting, null, 4, 2);
+        Random random = new Random(1);
+        for (int i = 0; i < 1024; i++)
+        {
+            index.add(Tuple.from(random.nextInt(100), "x"));
+        }
+        assertEquals(index.size(), 1024);
+        assertEquals(written[0] <= 1024 * 8, true);
+        assertEquals(index.getRunCount() <= 9, true);
+        Pair<Integer, String> previous = null;
+        for (Iterator<Pair<Integer, String>> each = index.iterator(); each.hasNext();)
+        {
+            Pair<Integer, String> tuple = each.next();
+            assertEquals(previous == null || new TupleComparator<Pair<Integer, String>>().compare(previous, tuple) <= 0, true);
+            previous = tuple;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.Search;
+import com.goodworkalan.tuple.partial.StringDictionary;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class StringDictionaryTest
+{
+    @Test
+    public void order()
+    {
+        StringDictionary dictionary = new StringDictionary(Arrays.asList("b", "d", null, "f"));
+        assertEquals(dictionary.size(), 3);
+        assertTrue(dictionary.encode("b") < dictionary.encode("d"));
+        int c = dictionary.probe("c");
+        assertTrue(dictionary.probe("b") < c && c < dictionary.probe("d"));
+        assertFalse(dictionary.contains("c"));
+        assertTrue(dictionary.probe("a") < dictionary.probe("b"));
+        assertTrue(dictionary.probe("g") > dictionary.probe("f"));
+        assertTrue(dictionary.probe(null) < dictionary.probe("a"));
+        int d = dictionary.encode("d");
+        assertTrue(dictionary.encode("c") < d);
+        assertEquals(dictionary.encode("d"), d);
+        assertEquals(dictionary.decode(dictionary.probe("c")), "c");
+        assertEquals(dictionary.getGeneration(), 0);
+    }
+
+    @Test
+    public void spread()
+    {
+        StringDictionary dictionary = new StringDictionary(Arrays.asList("a", "b"));
+        String string = "a";
+        for (int i = 0; i < 40; i++)
+        {
+            string = string + "a";
+            dictionary.encode(string);
+        }
+        assertEquals(dictionary.getGeneration(), 1);
+        assertEquals(dictionary.size(), 42);
+        String previous = null;
+        for (String value = "a"; value.length() <= 41; value = value + "a")
+        {
+            assertTrue(previous == null || dictionary.probe(previous) < dictionary.probe(value));
+            previous = value;
+        }
+        assertTrue(dictionary.probe(previous) < dictionary.probe("b"));
+    }
+
+    @Test
+    public void search()
+    {
+        StringDictionary dictionary = new StringDictionary(Arrays.asList("Gutierrez", "Perry", "Smith"));
+        Partial<Pair<Integer, Integer>, Single<Integer>> oneOfPair
+            = Compare.oneOf(Compare.<Integer, Integer>pair());
+        List<Pair<Integer, Integer>> sorted = new ArrayList<Pair<Integer, Integer>>();
+        for (String name : new String[] { "Gutierrez", "Gutierrez", "Perry", "Smith" })
+        {
+            sorted.add(Tuple.from(dictionary.encode(name), sorted.size()));
+        }
+        assertEquals(Search.run(sorted, oneOfPair.compare(Tuple.from(dictionary.probe("Gutierrez")))), new Run(0, 2));
+        assertEquals(Search.run(sorted, oneOfPair.compare(Tuple.from(dictionary.probe("Jones")))), new Run(2, 2));
+    }
+
+    @Test
+    public void partial()
+    {
+        StringDictionary dictionary = new StringDictionary(Arrays.asList("Gutierrez", "Perry", "Smith"));
+        Partial<Triple<Integer, Integer, Integer>, Pair<Integer, Integer>> twoOfTriple
+            = Compare.twoOf(Compare.<Integer, Integer, Integer>triple());
+        Partial<Triple<String, Integer, Integer>, Pair<String, Integer>> decoded
+            = Compare.twoOf(Compare.<String, Integer, Integer>triple());
+        Partial<Triple<Integer, Integer, Integer>, Pair<String, Integer>> byName = dictionary.partial(decoded, twoOfTriple, 0);
+        List<Triple<Integer, Integer, Integer>> sorted = new ArrayList<Triple<Integer, Integer, Integer>>();
+        String[] names = { null, "Gutierrez", "Gutierrez", "Perry", "Smith" };
+        int[] seconds = { 0, 0, 1, 0, 0 };
+        for (int i = 0; i < names.length; i++)
+        {
+            sorted.add(Tuple.from(dictionary.encode(names[i]), seconds[i], i));
+        }
+        assertEquals(Search.run(sorted, byName.compare(Tuple.from("Gutierrez", 0))), new Run(1, 2));
+        assertEquals(Search.run(sorted, byName.compare(Tuple.from("Gutierrez", 1))), new Run(2, 3));
+        assertEquals(Search.run(sorted, byName.compare(Tuple.from("Jones", 1))), new Run(3, 3));
+        assertEquals(Search.run(sorted, byName.compare(Tuple.from((String) null, 0))), new Run(0, 1));
+        assertEquals(byName.getSharedCount(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void mismatchedShared()
+    {
+        StringDictionary dictionary = new StringDictionary(Arrays.asList("Gutierrez"));
+        Partial<Triple<String, Integer, Integer>, Single<String>> decoded
+            = Compare.oneOf(Compare.<String, Integer, Integer>triple());
+        dictionary.partial(decoded, Compare.twoOf(Compare.<Integer, Integer, Integer>triple()), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void mismatchedField()
+    {
+        StringDictionary dictionary = new StringDictionary(Arrays.asList("Gutierrez"));
+        Partial<Triple<String, Integer, Integer>, Pair<String, Integer>> decoded
+            = Compare.twoOf(Compare.<String, Integer, Integer>triple());
+        Partial<Triple<Integer, Integer, Integer>, Pair<String, Integer>> byName
+            = dictionary.partial(decoded, Compare.twoOf(Compare.<Integer, Integer, Integer>triple()), 1);
+        byName.compare(Tuple.from("Gutierrez", 1));
+    }
+}
@@ -0,0 +1,77 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.FieldType;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.PartialDescriptor;
+import com.goodworkalan.tuple.partial.TupleCodec;
+import com.goodworkalan.tuple.partial.TupleReader;
+import com.goodworkalan.tuple.partial.TupleWriter;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class TupleCodecTest
+{
+    @Test
+    public void buffer()
+    {
+        TupleCodec codec = new TupleCodec(FieldType.STRING, FieldType.LONG, FieldType.INTEGER);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.write(buffer, Tuple.from("Guti\u00e9rrez \u20ac \ud83d\ude00", -1L, (Integer) null));
+        codec.write(buffer, Tuple.from((String) null, Long.MAX_VALUE, Integer.MIN_VALUE));
+        buffer.flip();
+        Triple<String, Long, Integer> triple = codec.read(buffer);
+        assertEquals(triple, Tuple.from("Guti\u00e9rrez \u20ac \ud83d\ude00", -1L, (Integer) null));
+        triple = codec.read(buffer);
+        assertEquals(triple, Tuple.from((String) null, Long.MAX_VALUE, Integer.MIN_VALUE));
+        assertEquals(buffer.remaining(), 0);
+    }
+
+    @Test
+    public void stream() throws Exception
+    {
+        TupleCodec codec = new TupleCodec(FieldType.INTEGER, FieldType.STRING);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TupleWriter writer = new TupleWriter(codec, Channels.newChannel(out), 16);
+        for (int i = 0; i < 100; i++)
+        {
+            writer.write(Tuple.from(i, i % 10 == 0 ? "a string longer than the buffer" : "x"));
+        }
+        writer.close();
+        TupleReader reader = new TupleReader(codec, Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), 16);
+        for (int i = 0; i < 100; i++)
+        {
+            Pair<Integer, String> pair = reader.read();
+            assertEquals(pair, Tuple.from(i, i % 10 == 0 ? "a string longer than the buffer" : "x"));
+        }
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void descriptor()
+    {
+        Partial<Triple<String, Long, Integer>, Pair<String, Long>> twoOfTriple
+            = Compare.twoOf(Compare.<String, Long, Integer>triple());
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        PartialDescriptor.describe(twoOfTriple, FieldType.STRING, FieldType.LONG, FieldType.INTEGER).write(buffer);
+        buffer.flip();
+        PartialDescriptor descriptor = PartialDescriptor.read(buffer);
+        assertEquals(descriptor.getArity(), 3);
+        assertEquals(descriptor.getSharedCount(), 2);
+        assertEquals(descriptor.getPartialCodec().getArity(), 2);
+        Partial<Triple<String, Long, Integer>, Pair<String, Long>> rebuilt = descriptor.partial();
+        assertEquals(rebuilt.compare(Tuple.from("A", 1L)).compareTo(Tuple.from("A", 1L, 3)), 0);
+        assertEquals(rebuilt.compare(Tuple.from("A", 1L)).compareTo(Tuple.from("A", 2L, 3)), -1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.Run;
+import com.goodworkalan.tuple.partial.TupleRange;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Triple;
+import com.mallardsoft.tuple.Tuple;
+
+public class TupleRangeTest
+{
+    private final Partial<Triple<Integer, String, Integer>, Single<Integer>> oneOfTriple
+        = Compare.oneOf(Compare.<Integer, String, Integer>triple());
+
+    private final Partial<Triple<Integer, String, Integer>, Pair<Integer, String>> twoOfTriple
+        = Compare.twoOf(Compare.<Integer, String, Integer>triple());
+
+    private List<Triple<Integer, String, Integer>> sorted()
+    {
+        List<Triple<Integer, String, Integer>> sorted = new ArrayList<Triple<Integer, String, Integer>>();
+        for (int i = 0; i < 100; i++)
+        {
+            sorted.add(Tuple.from(i / 4 * 2, String.format("%03d", i), i));
+        }
+        return sorted;
+    }
+
+    @Test
+    public void resolve()
+    {
+        List<Triple<Integer, String, Integer>> sorted = sorted();
+        assertEquals(TupleRange.prefix(oneOfTriple, Tuple.from(4)).resolve(sorted), new Run(8, 12));
+        assertEquals(TupleRange.prefix(oneOfTriple, Tuple.from(5)).resolve(sorted), new Run(12, 12));
+        assertEquals(TupleRange.between(oneOfTriple, Tuple.from(4), true, oneOfTriple, Tuple.from(10), false).resolve(sorted), new Run(8, 20));
+        assertEquals(TupleRange.between(oneOfTriple, Tuple.from(4), false, oneOfTriple, Tuple.from(10), true).resolve(sorted), new Run(12, 24));
+        assertEquals(TupleRange.between(twoOfTriple, Tuple.from(4, "009"), true, oneOfTriple, Tuple.from(6), false).resolve(sorted), new Run(9, 12));
+        assertEquals(TupleRange.between(twoOfTriple, Tuple.from(4, "009"), false, oneOfTriple, Tuple.from(6), true).resolve(sorted), new Run(10, 16));
+        assertEquals(TupleRange.from(oneOfTriple, Tuple.from(4), true).resolve(sorted), new Run(8, 100));
+        assertEquals(TupleRange.to(oneOfTriple, Tuple.from(4), false).resolve(sorted), new Run(0, 8));
+        assertEquals(TupleRange.<Triple<Integer, String, Integer>>all().resolve(sorted), new Run(0, 100));
+        assertEquals(TupleRange.between(oneOfTriple, Tuple.from(10), true, oneOfTriple, Tuple.from(4), true).resolve(sorted), new Run(20, 20));
+    }
+
+    @Test
+    public void intersect()
+    {
+        TupleRange<Triple<Integer, String, Integer>> left = TupleRange.between(oneOfTriple, Tuple.from(4), true, oneOfTriple, Tuple.from(10), true);
+        TupleRange<Triple<Integer, String, Integer>> right = TupleRange.from(twoOfTriple, Tuple.from(10, "020"), false);
+        TupleRange<Triple<Integer, String, Integer>> both = left.intersect(right);
+        assertEquals(both.resolve(sorted()), new Run(21, 24));
+        assertEquals(both.isEmpty(), false);
+        assertEquals(both.contains(Tuple.from(10, "021", 21)), true);
+        assertEquals(both.contains(Tuple.from(10, "020", 20)), false);
+        assertEquals(TupleRange.prefix(oneOfTriple, Tuple.from(4)).intersect(TupleRange.prefix(oneOfTriple, Tuple.from(6))).isEmpty(), true);
+        assertEquals(TupleRange.prefix(oneOfTriple, Tuple.from(4)).intersect(TupleRange.prefix(twoOfTriple, Tuple.from(4, "009"))),
+                     TupleRange.prefix(twoOfTriple, Tuple.from(4, "009")));
+    }
+
+    @Test
+    public void union()
+    {
+        List<TupleRange<Triple<Integer, String, Integer>>> ranges = new ArrayList<TupleRange<Triple<Integer, String, Integer>>>();
+        ranges.add(TupleRange.between(oneOfTriple, Tuple.from(20), true, oneOfTriple, Tuple.from(30), true));
+        ranges.add(TupleRange.between(oneOfTriple, Tuple.from(4), true, oneOfTriple, Tuple.from(6), false));
+        ranges.add(TupleRange.prefix(oneOfTriple, Tuple.from(6)));
+        ranges.add(TupleRange.prefix(twoOfTriple, Tuple.from(22, "045")));
+        ranges.add(TupleRange.between(oneOfTriple, Tuple.from(40), true, oneOfTriple, Tuple.from(30), true));
+        List<TupleRange<Triple<Integer, String, Integer>>> merged = TupleRange.union(ranges);
+        assertEquals(merged.size(), 2);
+        assertEquals(merged.get(0), TupleRange.between(oneOfTriple, Tuple.from(4), true, oneOfTriple, Tuple.from(6), true));
+        assertEquals(merged.get(1), ranges.get(0));
+        assertEquals(merged.get(0).resolve(sorted()), new Run(8, 16));
+    }
+}
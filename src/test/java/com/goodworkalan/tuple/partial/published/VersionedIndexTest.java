@@ -0,0 +1,236 @@
+package com.goodworkalan.tuple.partial.published;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.goodworkalan.tuple.partial.Compare;
+import com.goodworkalan.tuple.partial.FlatTuple;
+import com.goodworkalan.tuple.partial.IndexSnapshot;
+import com.goodworkalan.tuple.partial.Partial;
+import com.goodworkalan.tuple.partial.TupleRange;
+import com.goodworkalan.tuple.partial.VersionedIndex;
+import com.mallardsoft.tuple.Pair;
+import com.mallardsoft.tuple.Single;
+import com.mallardsoft.tuple.Tuple;
+
+public class VersionedIndexTest
+{
+    private final Partial<Pair<Integer, Integer>, Single<Integer>> oneOfPair
+        = Compare.oneOf(Compare.<Integer, Integer>pair());
+
+    private List<Pair<Integer, Integer>> list(Iterator<Pair<Integer, Integer>> iterator)
+    {
+        List<Pair<Integer, Integer>> list = new ArrayList<Pair<Integer, Integer>>();
+        while (iterator.hasNext())
+        {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    @Test
+    public void isolation()
+    {
+        VersionedIndex<Pair<Integer, Integer>> index = new VersionedIndex<Pair<Integer, Integer>>(null, 8, 2);
+        for (int i = 0; i < 50; i++)
+        {
+            index.add(Tuple.from(i % 10, i));
+        }
+        assertEquals(index.getVersion(), 50);
+        IndexSnapshot<Pair<Integer, Integer>> before = index.snapshot();
+        assertEquals(index.remove(Tuple.from(3, 13)), true);
+        assertEquals(index.remove(Tuple.from(3, 13)), false);
+        index.add(Tuple.from(3, 99));
+        IndexSnapshot<Pair<Integer, Integer>> after = index.snapshot();
+        assertEquals(before.getVersion(), 50);
+        assertEquals(after.getVersion(), 52);
+        assertEquals(before.size(), 50);
+        assertEquals(after.size(), 50);
+        List<Pair<Integer, Integer>> three = list(before.scan(oneOfPair, Tuple.from(3)));
+        assertEquals(three.size(), 5);
+        assertEquals(three.get(1), Tuple.from(3, 13));
+        three = list(after.scan(oneOfPair, Tuple.from(3)));
+        assertEquals(three.size(), 5);
+        assertEquals(three.get(1), Tuple.from(3, 23));
+        assertEquals(three.get(4), Tuple.from(3, 99));
+        List<Pair<Integer, Integer>> range = list(after.scan(TupleRange.between(oneOfPair, Tuple.from(2), false, oneOfPair, Tuple.from(4), false)));
+        assertEquals(range, three);
+        before.close();
+        after.close();
+        assertEquals(index.getSnapshotCount(), 0);
+    }
+
+    @Test
+    public void collect()
+    {
+        VersionedIndex<Pair<Integer, Integer>> index = new VersionedIndex<Pair<Integer, Integer>>(null, 8, 2);
+        for (int i = 0; i < 40; i++)
+        {
+            index.add(Tuple.from(i, 0));
+        }
+        IndexSnapshot<Pair<Integer, Integer>> snapshot = index.snapshot();
+        for (int i = 0; i < 40; i += 2)
+        {
+            index.remove(Tuple.from(i, 0));
+        }
+        index.compact();
+        assertEquals(index.getEntryCount(), 40);
+        assertEquals(snapshot.size(), 40);
+        snapshot.close();
+        index.compact();
+        assertEquals(index.getEntryCount(), 20);
+        IndexSnapshot<Pair<Integer, Integer>> last = index.snapshot();
+        assertEquals(last.size(), 20);
+        assertEquals(list(last.iterator()).get(0), Tuple.from(1, 0));
+        last.close();
+    }
+
+    @Test
+    public void concurrent() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final VersionedIndex<Pair<Integer, Integer>> index = new VersionedIndex<Pair<Integer, Integer>>(executor, 64, 4);
+        List<Pair<Integer, Integer>> additions = new ArrayList<Pair<Integer, Integer>>();
+        for (int i = 0; i < 100; i++)
+        {
+            additions.add(Tuple.from(i, 0));
+        }
+        index.apply(additions, new ArrayList<Pair<Integer, Integer>>());
+        Thread writer = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                for (int generation = 1; generation < 200; generation++)
+                {
+                    List<Pair<Integer, Integer>> additions = new ArrayList<Pair<Integer, Integer>>();
+                    List<Pair<Integer, Integer>> removals = new ArrayList<Pair<Integer, Integer>>();
+                    for (int i = 0; i < 100; i++)
+                    {
+                        removals.add(Tuple.from(i, generation - 1));
+                        additions.add(Tuple.from(i, generation));
+                    }
+                    index.apply(additions, removals);
+                }
+            }
+        });
+        writer.start();
+        int scans = 0;
+        while (writer.isAlive() || scans == 0)
+        {
+            IndexSnapshot<Pair<Integer, Integer>> snapshot = index.snapshot();
+            try
+            {
+                List<Pair<Integer, Integer>> all = list(snapshot.iterator());
+                assertEquals(all.size(), 100);
+                int generation = FlatTuple.from(all.get(0)).getInt(1);
+                for (int i = 0; i < 100; i++)
+                {
+                    assertEquals(all.get(i), Tuple.from(i, generation));
+                }
+            }
+            finally
+            {
+                snapshot.close();
+            }
+            scans++;
+        }
+        writer.join();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        index.compact();
+        assertEquals(index.getEntryCount() < 1000, true);
+    }
+
+    @Test
+    public void reclaim()
+    {
+        VersionedIndex<Pair<Integer, Integer>> index = new VersionedIndex<Pair<Integer, Integer>>(null, 8, 2);
+        for (int i = 0; i < 64; i++)
+        {
+            index.add(Tuple.from(i, 0));
+        }
+        IndexSnapshot<Pair<Integer, Integer>> snapshot = index.snapshot();
+        for (int i = 0; i < 64; i++)
+        {
+            if (i % 4 != 0)
+            {
+                index.remove(Tuple.from(i, 0));
+            }
+        }
+        assertEquals(index.getEntryCount(), 64);
+        int runs = index.getRunCount();
+        snapshot.close();
+        assertEquals(index.getEntryCount(), 16);
+        assertEquals(index.getRunCount(), runs);
+        IndexSnapshot<Pair<Integer, Integer>> last = index.snapshot();
+        assertEquals(list(last.iterator()).get(1), Tuple.from(4, 0));
+        last.close();
+    }
+
+    @Test
+    public void staggered()
+    {
+        final int[] rewrites = new int[1];
+        Executor counting = new Executor()
+        {
+            public void execute(Runnable command)
+            {
+                rewrites[0]++;
+                command.run();
+            }
+        };
+        VersionedIndex<Pair<Integer, Integer>> index = new VersionedIndex<Pair<Integer, Integer>>(counting, 4, 4);
+        for (int i = 0; i < 4; i++)
+        {
+            index.add(Tuple.from(i, 0));
+        }
+        assertEquals(index.getRunCount(), 1);
+        IndexSnapshot<Pair<Integer, Integer>> first = index.snapshot();
+        index.add(Tuple.from(9, 0));
+        IndexSnapshot<Pair<Integer, Integer>> second = index.snapshot();
+        index.remove(Tuple.from(0, 0));
+        index.remove(Tuple.from(1, 0));
+        first.close();
+        assertEquals(rewrites[0], 0);
+        assertEquals(index.getEntryCount(), 5);
+        assertEquals(second.size(), 5);
+        second.close();
+        assertEquals(rewrites[0], 1);
+        assertEquals(index.getEntryCount(), 3);
+        assertEquals(index.getRunCount(), 1);
+    }
+
+    @Test
+    public void churn()
+    {
+        VersionedIndex<Pair<Integer, Integer>> index = new VersionedIndex<Pair<Integer, Integer>>(null, 16, 2);
+        for (int i = 0; i < 256; i++)
+        {
+            index.add(Tuple.from(i, 0));
+        }
+        for (int generation = 1; generation < 50; generation++)
+        {
+            for (int i = 0; i < 256; i++)
+            {
+                List<Pair<Integer, Integer>> additions = new ArrayList<Pair<Integer, Integer>>();
+                List<Pair<Integer, Integer>> removals = new ArrayList<Pair<Integer, Integer>>();
+                removals.add(Tuple.from(i, generation - 1));
+                additions.add(Tuple.from(i, generation));
+                index.apply(additions, removals);
+            }
+            assertEquals(index.getEntryCount() <= 256 * 3, true);
+        }
+        IndexSnapshot<Pair<Integer, Integer>> snapshot = index.snapshot();
+        assertEquals(snapshot.size(), 256);
+        snapshot.close();
+    }
+}